@@ -0,0 +1,83 @@
+package com.racabe.anagrams.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.racabe.anagrams.search.AnagramPage;
+import com.racabe.anagrams.search.AnagramQuery;
+import com.racabe.anagrams.service.impl.DictionaryService;
+
+/**
+ * The class AnagramPageBenchmark, to measure the pages of anagrams collected by the service, as
+ * they are kept into the cache, and their serialization to JSON. Run it with {@code -prof gc} to
+ * compare the memory allocated by each page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AnagramPageBenchmark {
+
+  /** The output stream that discards the JSON written. */
+  private static final OutputStream DISCARD = new OutputStream() {
+    @Override
+    public void write(int b) {
+      // Discard the byte
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      // Discard the bytes
+    }
+  };
+
+  /** The phrase. */
+  @Param({"Visual Studio", "Helmuth Elsner", "Dictionary Service"})
+  private String words;
+
+  /** The service, without cache nor pools, so every page is searched in the calling thread. */
+  private final DictionaryService dictionaryService = new DictionaryService();
+
+  /** The object mapper used to write the pages. */
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /**
+   * Collect the page with all the anagrams of the phrase.
+   *
+   * @param dictionary the dictionary shared by the benchmarks
+   * @return the page
+   */
+  @Benchmark
+  public AnagramPage page(BenchmarkDictionary dictionary) {
+    return dictionaryService.getAnagrams(dictionary.getDictionary(), new AnagramQuery(words));
+  }
+
+  /**
+   * Collect the page with all the anagrams of the phrase and write them as JSON.
+   *
+   * @param dictionary the dictionary shared by the benchmarks
+   * @return the page
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Benchmark
+  public AnagramPage pageSerialized(BenchmarkDictionary dictionary) throws IOException {
+    AnagramPage page = this.page(dictionary);
+    objectMapper.writeValue(DISCARD, page.getAnagrams());
+    return page;
+  }
+}
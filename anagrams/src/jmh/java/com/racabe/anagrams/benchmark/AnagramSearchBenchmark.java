@@ -0,0 +1,65 @@
+package com.racabe.anagrams.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.racabe.anagrams.search.AnagramConsumer;
+import com.racabe.anagrams.search.AnagramQuery;
+import com.racabe.anagrams.search.AnagramSearch;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class AnagramSearchBenchmark, to measure the search of the anagrams of short, medium and long
+ * phrases in one thread. The phrases are the examples of the README.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AnagramSearchBenchmark {
+
+  /** The phrase. */
+  @Param({"Computer", "Visual Studio", "Wareneingang", "Helmuth Elsner", "William Shakespeare"})
+  private String words;
+
+  /** The signature of the phrase. */
+  private long[] signature;
+
+  /**
+   * Calculate the signature of the phrase.
+   */
+  @Setup
+  public void setUp() {
+    signature = LetterSignature.of(words);
+  }
+
+  /**
+   * Search all the anagrams of the phrase, consuming them without keeping them.
+   *
+   * @param dictionary the dictionary shared by the benchmarks
+   * @param blackhole the blackhole that consumes the anagrams
+   * @return true if the search has finished
+   */
+  @Benchmark
+  public boolean search(BenchmarkDictionary dictionary, Blackhole blackhole) {
+    return new AnagramSearch(dictionary.getDictionary(), new AnagramQuery(words))
+        .search(signature, (AnagramConsumer) anagram -> {
+          blackhole.consume(anagram);
+          return true;
+        });
+  }
+}
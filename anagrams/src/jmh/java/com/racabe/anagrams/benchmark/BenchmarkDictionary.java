@@ -0,0 +1,88 @@
+package com.racabe.anagrams.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryFile;
+import com.racabe.anagrams.service.impl.DictionaryService;
+
+/**
+ * The class BenchmarkDictionary, the dictionary shared by the benchmarks. By default it is the
+ * bundled anagramDic.txt, another one can be given with the system property
+ * {@code anagrams.benchmark.dictionary}. With {@code -p format=compiled} the searches use the
+ * dictionary compiled and mapped into memory instead of the one parsed into the heap.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDictionary {
+
+  /** The format of the dictionary searched, parsed into the heap or compiled and mapped. */
+  @Param({"parsed"})
+  private String format;
+
+  /** The path of the dictionary file. */
+  private Path path;
+
+  /** The path of the compiled dictionary, or null. */
+  private Path compiled;
+
+  /** The snapshot of the dictionary. */
+  private Dictionary dictionary;
+
+  /**
+   * Load the dictionary.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Setup
+  public void setUp() throws IOException {
+    path = Paths.get(System.getProperty("anagrams.benchmark.dictionary", "../anagramDic.txt"));
+    DictionaryService dictionaryService = new DictionaryService();
+    dictionaryService.loadDictionary("benchmark", path);
+    dictionary = dictionaryService.getDictionary("benchmark");
+
+    if ("compiled".equals(format)) {
+      compiled = Files.createTempFile("benchmark", ".dict");
+      DictionaryFile.write(dictionary, compiled);
+      dictionary = DictionaryFile.map(compiled, "benchmark", dictionary.getVersion() + 1);
+    }
+  }
+
+  /**
+   * Delete the compiled dictionary.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    if (compiled != null) {
+      Files.delete(compiled);
+    }
+  }
+
+  /**
+   * Gets the path of the dictionary file.
+   *
+   * @return the path
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Gets the snapshot of the dictionary.
+   *
+   * @return the snapshot
+   */
+  public Dictionary getDictionary() {
+    return dictionary;
+  }
+}
@@ -0,0 +1,39 @@
+package com.racabe.anagrams.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.service.impl.DictionaryService;
+
+/**
+ * The class DictionaryParsingBenchmark, to measure the time to load a dictionary file into a
+ * snapshot.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DictionaryParsingBenchmark {
+
+  /**
+   * Load the dictionary file.
+   *
+   * @param dictionary the dictionary shared by the benchmarks
+   * @return the snapshot loaded
+   */
+  @Benchmark
+  public Dictionary loadDictionary(BenchmarkDictionary dictionary) {
+    DictionaryService dictionaryService = new DictionaryService();
+    dictionaryService.loadDictionary("benchmark", dictionary.getPath());
+    return dictionaryService.getDictionary("benchmark");
+  }
+}
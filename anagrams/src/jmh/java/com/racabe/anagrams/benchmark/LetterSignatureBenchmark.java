@@ -0,0 +1,76 @@
+package com.racabe.anagrams.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class LetterSignatureBenchmark, to measure the signatures of the letters of a phrase and the
+ * operations the search does with them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LetterSignatureBenchmark {
+
+  /** The phrase. */
+  @Param({"Computer", "Wareneingang", "William Shakespeare"})
+  private String words;
+
+  /** The signature of the phrase. */
+  private long[] signature;
+
+  /** The signature of a word contained into the phrase. */
+  private long[] word;
+
+  /** The letters left after subtracting the word. */
+  private long[] remaining;
+
+  /**
+   * Calculate the signatures used by the benchmarks.
+   */
+  @Setup
+  public void setUp() {
+    signature = LetterSignature.of(words);
+    word = LetterSignature.of(words.substring(0, 3));
+    remaining = new long[LetterSignature.LONGS];
+  }
+
+  /**
+   * Calculate the signature of the phrase.
+   *
+   * @return the signature
+   */
+  @Benchmark
+  public long[] signature() {
+    return LetterSignature.of(words);
+  }
+
+  /**
+   * Check if a word fits into the phrase and subtract its letters.
+   *
+   * @return the letters left
+   */
+  @Benchmark
+  public long[] containsAndSubtract() {
+    if (LetterSignature.contains(signature, 0, word, 0)) {
+      LetterSignature.subtract(signature, 0, word, 0, remaining, 0);
+    }
+    return remaining;
+  }
+}
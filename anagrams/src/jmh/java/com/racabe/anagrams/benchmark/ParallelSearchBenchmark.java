@@ -0,0 +1,79 @@
+package com.racabe.anagrams.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.racabe.anagrams.search.AnagramQuery;
+import com.racabe.anagrams.search.ParallelAnagramSearch;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class ParallelSearchBenchmark, to measure the speed-up of the parallel search by the number
+ * of threads of the pool. Comparing the scores of each parallelism with the score of 1 gives the
+ * curve of the speed-up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+  /** The phrase. */
+  @Param({"Helmuth Elsner", "William Shakespeare"})
+  private String words;
+
+  /** The number of threads of the pool. */
+  @Param({"1", "2", "4", "8"})
+  private int parallelism;
+
+  /** The signature of the phrase. */
+  private long[] signature;
+
+  /** The pool of the parallel searches. */
+  private ForkJoinPool pool;
+
+  /**
+   * Calculate the signature of the phrase and create the pool.
+   */
+  @Setup
+  public void setUp() {
+    signature = LetterSignature.of(words);
+    pool = new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Shut down the pool.
+   */
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Search all the anagrams of the phrase in parallel.
+   *
+   * @param dictionary the dictionary shared by the benchmarks
+   * @return the anagrams found
+   */
+  @Benchmark
+  public List<String> search(BenchmarkDictionary dictionary) {
+    return new ParallelAnagramSearch(dictionary.getDictionary(), new AnagramQuery(words), pool)
+        .search(signature);
+  }
+}
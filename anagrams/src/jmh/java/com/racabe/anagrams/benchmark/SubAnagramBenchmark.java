@@ -0,0 +1,95 @@
+package com.racabe.anagrams.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.WordBucket;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class SubAnagramBenchmark, to compare the words spelled with some letters found by the trie
+ * of the signatures with the ones found testing every signature of the dictionary.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SubAnagramBenchmark {
+
+  /** The letters available. */
+  @Param({"Computer", "Helmuth Elsner", "William Shakespeare"})
+  private String letters;
+
+  /** The signature of the letters. */
+  private long[] signature;
+
+  /**
+   * Calculate the signature of the letters.
+   */
+  @Setup
+  public void setUp() {
+    signature = LetterSignature.of(letters);
+  }
+
+  /**
+   * Find the words walking the trie of the signatures.
+   *
+   * @param dictionary the dictionary shared by the benchmarks
+   * @return the words found
+   */
+  @Benchmark
+  public List<String> trie(BenchmarkDictionary dictionary) {
+    return dictionary.getDictionary().getSubAnagramIndex().find(signature, 0, 0, 1);
+  }
+
+  /**
+   * Find the words walking the trie of the signatures, with two blank tiles.
+   *
+   * @param dictionary the dictionary shared by the benchmarks
+   * @return the words found
+   */
+  @Benchmark
+  public List<String> trieWithBlanks(BenchmarkDictionary dictionary) {
+    return dictionary.getDictionary().getSubAnagramIndex().find(signature, 0, 2, 1);
+  }
+
+  /**
+   * Find the words testing every signature of the lengths up to the number of letters.
+   *
+   * @param dictionary the dictionary shared by the benchmarks
+   * @return the words found
+   */
+  @Benchmark
+  public List<String> scan(BenchmarkDictionary dictionary) {
+    Dictionary snapshot = dictionary.getDictionary();
+    int maxLength = Math.min(LetterSignature.length(signature, 0), snapshot.getMaxWordLength());
+
+    List<String> words = new ArrayList<String>();
+    for (int length = 1; length <= maxLength; length++) {
+      WordBucket bucket = snapshot.getCandidatesByLength(length);
+      if (bucket != null) {
+        for (int position : bucket.positionsContainedIn(signature, 0)) {
+          Collections.addAll(words, bucket.getWords(position));
+        }
+      }
+    }
+    return words;
+  }
+}
@@ -0,0 +1,422 @@
+package com.racabe.anagrams.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.racabe.anagrams.AnagramsApplication;
+
+/**
+ * The class LoadTest, to find the saturation point of the service on a box and to compare the
+ * throughput of two builds. The application is started on a free local port with a dictionary
+ * preloaded, and then a closed loop of clients searches a mix of short and long phrases into it,
+ * with more clients at each step. For each number of clients it reports the throughput, the
+ * percentiles of the latency and the rate of errors, and the results are appended to a CSV file.
+ *
+ * <p>The options are given as name=value arguments, for example {@code concurrency=1,8,64
+ * duration=30 longRatio=0.2}, see {@link #usage()}. The arguments starting with "--" are properties
+ * of the application started, like {@code --anagrams.cache.enabled=false}. With {@code url=...}
+ * the clients call a service already running instead, so the clients and the service do not share
+ * the cores.
+ */
+public final class LoadTest {
+
+  /** The id of the dictionary preloaded into the application started. */
+  private static final String DICTIONARY_ID = "loadtest";
+
+  /** The short phrases searched by default, each one answered in a few milliseconds. */
+  private static final String SHORT_PHRASES =
+      "Computer,Listen,Anagram,Dormitory,Astronomer,Debit card,Conversation,Wareneingang";
+
+  /** The long phrases searched by default, with thousands of anagrams. */
+  private static final String LONG_PHRASES = "Visual Studio,Helmuth Elsner";
+
+  /** The size of the buffer used to read the responses. */
+  private static final int BUFFER_SIZE = 16 * 1024;
+
+  /** The numbers of clients of each step. */
+  private final int[] concurrency;
+
+  /** The time of each step before measuring, in nanoseconds. */
+  private final long warmupNanos;
+
+  /** The time measured of each step, in nanoseconds. */
+  private final long durationNanos;
+
+  /** The short phrases. */
+  private final List<String> shortPhrases;
+
+  /** The long phrases. */
+  private final List<String> longPhrases;
+
+  /** The fraction of the searches that are long phrases. */
+  private final double longRatio;
+
+  /** The query parameters added to every search, like "&maxResults=100", or empty. */
+  private final String queryParameters;
+
+  /** The seed of the choices of the phrases. */
+  private final long seed;
+
+  /** The label of this run into the CSV file, like the version of the build. */
+  private final String label;
+
+  /** The CSV file where the results are appended. */
+  private final Path output;
+
+  /**
+   * Instantiates a new load test.
+   *
+   * @param options the options, by name
+   */
+  private LoadTest(Map<String, String> options) {
+    this.concurrency = Arrays.stream(option(options, "concurrency", "1,2,4,8,16,32,64")
+        .split(",")).mapToInt(clients -> Integer.parseInt(clients.trim())).toArray();
+    this.warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option(options, "warmup", "5")));
+    this.durationNanos =
+        TimeUnit.SECONDS.toNanos(Long.parseLong(option(options, "duration", "20")));
+    this.shortPhrases = Arrays.asList(option(options, "short", SHORT_PHRASES).split(","));
+    this.longPhrases = Arrays.asList(option(options, "long", LONG_PHRASES).split(","));
+    this.longRatio = Double.parseDouble(option(options, "longRatio", "0.1"));
+    this.seed = Long.parseLong(option(options, "seed", "42"));
+    this.label = option(options, "label", "local");
+    this.output = Paths.get(option(options, "output", "target/loadtest-result.csv"));
+
+    StringBuilder parameters = new StringBuilder();
+    for (String name : new String[] {"minWordLength", "maxWords", "maxResults", "timeout"}) {
+      if (options.containsKey(name)) {
+        parameters.append('&').append(name).append('=').append(options.get(name));
+      }
+    }
+    this.queryParameters = parameters.toString();
+  }
+
+  /**
+   * Run the load test.
+   *
+   * @param args the options as name=value and the properties of the application as --name=value
+   * @throws Exception if the application can not be started or a result can not be written
+   */
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<String, String>();
+    List<String> applicationArgs = new ArrayList<String>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (arg.startsWith("--")) {
+        applicationArgs.add(arg);
+      } else if (separator > 0) {
+        options.put(arg.substring(0, separator), arg.substring(separator + 1));
+      } else {
+        System.err.println("Unknown argument " + arg);
+        usage();
+        System.exit(1);
+      }
+    }
+    LoadTest loadTest = new LoadTest(options);
+
+    // Keep a connection alive for each client, by default only 5 are reused
+    System.setProperty("http.maxConnections",
+        String.valueOf(Arrays.stream(loadTest.concurrency).max().orElse(1)));
+
+    String url = options.get("url");
+    ConfigurableApplicationContext context = null;
+    if (url == null) {
+      // The arguments have precedence over application.properties
+      applicationArgs.add("--anagrams.dictionary.preload.path="
+          + option(options, "dictionary", "../anagramDic.txt"));
+      applicationArgs.add("--anagrams.dictionary.preload.id=" + DICTIONARY_ID);
+      if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--server.port="))) {
+        applicationArgs.add("--server.port=0");
+      }
+      context = new SpringApplicationBuilder(AnagramsApplication.class)
+          .run(applicationArgs.toArray(new String[applicationArgs.size()]));
+      int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+      url = "http://localhost:" + port + "/api/dictionaries/" + DICTIONARY_ID;
+    }
+
+    try {
+      loadTest.run(url);
+    } finally {
+      if (context != null) {
+        context.close();
+      }
+    }
+  }
+
+  /**
+   * Print the options of the load test.
+   */
+  private static void usage() {
+    System.err.println("Options, as name=value:");
+    System.err.println("  concurrency    numbers of clients of each step (1,2,4,8,16,32,64)");
+    System.err.println("  warmup         seconds of each step before measuring (5)");
+    System.err.println("  duration       seconds measured of each step (20)");
+    System.err.println("  short, long    phrases searched, separated by commas");
+    System.err.println("  longRatio      fraction of the searches that are long phrases (0.1)");
+    System.err.println("  minWordLength, maxWords, maxResults, timeout  limits of the searches");
+    System.err.println("  dictionary     dictionary preloaded (../anagramDic.txt)");
+    System.err.println("  url            dictionary of a service running, like "
+        + "http://host:8080/api/dictionaries/default, instead of starting one");
+    System.err.println("  label          label of the run into the CSV file (local)");
+    System.err.println("  output         CSV file (target/loadtest-result.csv)");
+    System.err.println("  seed           seed of the choices of the phrases (42)");
+    System.err.println("Arguments as --name=value are properties of the application started.");
+  }
+
+  /**
+   * Gets an option.
+   *
+   * @param options the options, by name
+   * @param name the name of the option
+   * @param defaultValue the value if the option is not given
+   * @return the value of the option
+   */
+  private static String option(Map<String, String> options, String name, String defaultValue) {
+    String value = options.get(name);
+    return value == null || value.isEmpty() ? defaultValue : value;
+  }
+
+  /**
+   * Run every step of the load test, printing and saving the results.
+   *
+   * @param dictionaryUrl the URL of the dictionary searched
+   * @throws InterruptedException if the thread is interrupted while the clients run
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void run(String dictionaryUrl) throws InterruptedException, IOException {
+    List<String> shortUrls = this.searchUrls(dictionaryUrl, shortPhrases);
+    List<String> longUrls = this.searchUrls(dictionaryUrl, longPhrases);
+
+    PrintStream out = System.out;
+    out.printf(Locale.ROOT, "Searching %s with %.0f%% long phrases, %d s per step%n",
+        dictionaryUrl, longRatio * 100, TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+    out.println(StepResult.HEADER);
+
+    List<StepResult> results = new ArrayList<StepResult>();
+    for (int clients : concurrency) {
+      StepResult result = this.runStep(clients, shortUrls, longUrls);
+      results.add(result);
+      out.println(result.format());
+    }
+
+    StepResult peak = results.get(0);
+    for (StepResult result : results) {
+      if (result.throughput() > peak.throughput()) {
+        peak = result;
+      }
+    }
+    out.printf(Locale.ROOT, "Peak throughput: %.1f requests/s with %d clients%n",
+        peak.throughput(), peak.clients);
+
+    this.save(results);
+    out.println("Results appended to " + output.toAbsolutePath());
+  }
+
+  /**
+   * Run a step of the load test with a number of clients.
+   *
+   * @param clients the number of clients
+   * @param shortUrls the URLs of the searches of the short phrases
+   * @param longUrls the URLs of the searches of the long phrases
+   * @return the result of the step
+   * @throws InterruptedException if the thread is interrupted while the clients run
+   */
+  private StepResult runStep(int clients, List<String> shortUrls, List<String> longUrls)
+      throws InterruptedException {
+    long measureStart = System.nanoTime() + warmupNanos;
+    long end = measureStart + durationNanos;
+
+    Client[] clientList = new Client[clients];
+    Thread[] threads = new Thread[clients];
+    for (int i = 0; i < clients; i++) {
+      clientList[i] =
+          new Client(new Random(seed + i), shortUrls, longUrls, longRatio, measureStart, end);
+      threads[i] = new Thread(clientList[i], "loadtest-client-" + i);
+      threads[i].start();
+    }
+
+    StepResult result = new StepResult(clients, durationNanos);
+    for (int i = 0; i < clients; i++) {
+      threads[i].join();
+      result.add(clientList[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Gets the URLs of the searches of some phrases.
+   *
+   * @param dictionaryUrl the URL of the dictionary searched
+   * @param phrases the phrases
+   * @return the URLs
+   * @throws UnsupportedEncodingException if UTF-8 is not supported
+   */
+  private List<String> searchUrls(String dictionaryUrl, List<String> phrases)
+      throws UnsupportedEncodingException {
+    List<String> urls = new ArrayList<String>();
+    for (String phrase : phrases) {
+      if (!phrase.trim().isEmpty()) {
+        urls.add(dictionaryUrl + "/anagrams?words="
+            + URLEncoder.encode(phrase.trim(), StandardCharsets.UTF_8.name()) + queryParameters);
+      }
+    }
+    return urls;
+  }
+
+  /**
+   * Append the results to the CSV file, writing the header if the file is new.
+   *
+   * @param results the results of each step
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void save(List<StepResult> results) throws IOException {
+    List<String> lines = new ArrayList<String>();
+    if (!Files.exists(output)) {
+      lines.add("label," + StepResult.CSV_HEADER);
+      if (output.toAbsolutePath().getParent() != null) {
+        Files.createDirectories(output.toAbsolutePath().getParent());
+      }
+    }
+    for (StepResult result : results) {
+      lines.add(label + "," + result.toCsv());
+    }
+    Files.write(output, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
+
+  /**
+   * The class Client, a client that searches the phrases one after the other until the end of a
+   * step, keeping the latency of the searches started after the warm up.
+   */
+  static final class Client implements Runnable {
+
+    /** The random choices of the phrases. */
+    private final Random random;
+
+    /** The URLs of the searches of the short phrases. */
+    private final List<String> shortUrls;
+
+    /** The URLs of the searches of the long phrases. */
+    private final List<String> longUrls;
+
+    /** The fraction of the searches that are long phrases. */
+    private final double longRatio;
+
+    /** The time when the measure starts, as given by {@link System#nanoTime()}. */
+    private final long measureStart;
+
+    /** The time when the step ends, as given by {@link System#nanoTime()}. */
+    private final long end;
+
+    /** The buffer used to read the responses. */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** The latencies of the searches answered, in nanoseconds. */
+    long[] latencies = new long[1024];
+
+    /** The number of searches answered. */
+    int answered;
+
+    /** The number of searches rejected because the service was full (429). */
+    int rejected;
+
+    /** The number of searches failed, with other status or without response. */
+    int failed;
+
+    /**
+     * Instantiates a new client.
+     *
+     * @param random the random choices of the phrases
+     * @param shortUrls the URLs of the searches of the short phrases
+     * @param longUrls the URLs of the searches of the long phrases
+     * @param longRatio the fraction of the searches that are long phrases
+     * @param measureStart the time when the measure starts
+     * @param end the time when the step ends
+     */
+    private Client(Random random, List<String> shortUrls, List<String> longUrls, double longRatio,
+        long measureStart, long end) {
+      this.random = random;
+      this.shortUrls = shortUrls;
+      this.longUrls = longUrls;
+      this.longRatio = longRatio;
+      this.measureStart = measureStart;
+      this.end = end;
+    }
+
+    /**
+     * Search phrases until the end of the step.
+     */
+    @Override
+    public void run() {
+      long startTime;
+      while ((startTime = System.nanoTime()) < end) {
+        boolean longPhrase = shortUrls.isEmpty()
+            || (!longUrls.isEmpty() && random.nextDouble() < longRatio);
+        List<String> urls = longPhrase ? longUrls : shortUrls;
+        int status = this.call(urls.get(random.nextInt(urls.size())));
+        long latency = System.nanoTime() - startTime;
+        if (startTime < measureStart) {
+          continue;
+        }
+
+        if (status == HttpURLConnection.HTTP_OK) {
+          if (answered == latencies.length) {
+            latencies = Arrays.copyOf(latencies, answered * 2);
+          }
+          latencies[answered++] = latency;
+        } else if (status == 429) {
+          rejected++;
+        } else {
+          failed++;
+        }
+      }
+    }
+
+    /**
+     * Call a URL, reading the whole response so the connection can be reused.
+     *
+     * @param url the URL
+     * @return the status of the response, or -1 if there was no response
+     */
+    private int call(String url) {
+      try {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        int status = connection.getResponseCode();
+        InputStream body =
+            status < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream()
+                : connection.getErrorStream();
+        if (body != null) {
+          try (InputStream stream = body) {
+            while (stream.read(buffer) >= 0) {
+              // Discard the response
+            }
+          }
+        }
+        return status;
+      } catch (IOException ex) {
+        return -1;
+      }
+    }
+  }
+}
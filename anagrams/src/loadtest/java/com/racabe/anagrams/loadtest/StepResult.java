@@ -0,0 +1,131 @@
+package com.racabe.anagrams.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class StepResult, the searches of all the clients of a step of the load test. The latencies
+ * of the searches answered are kept one by one, so the percentiles are exact and not estimated by
+ * a histogram, and only the searches answered with a 200 status count for the throughput.
+ */
+final class StepResult {
+
+  /** The header of the results printed. */
+  static final String HEADER = String.format(Locale.ROOT,
+      "%8s %10s %10s %8s %8s %12s %10s %10s %10s %10s", "clients", "requests", "rejected",
+      "failed", "errors", "requests/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+  /** The header of the CSV file. */
+  static final String CSV_HEADER = "clients,requests,rejected,failed,errorRate,throughput,"
+      + "p50Millis,p99Millis,p999Millis,maxMillis";
+
+  /** The number of clients. */
+  final int clients;
+
+  /** The time measured, in nanoseconds. */
+  private final long durationNanos;
+
+  /** The latencies of the searches answered, in nanoseconds. */
+  private long[] latencies = new long[0];
+
+  /** Whether the latencies are sorted. */
+  private boolean sorted;
+
+  /** The number of searches answered. */
+  private int answered;
+
+  /** The number of searches rejected because the service was full. */
+  private int rejected;
+
+  /** The number of searches failed, with other status or without response. */
+  private int failed;
+
+  /**
+   * Instantiates a new step result.
+   *
+   * @param clients the number of clients
+   * @param durationNanos the time measured, in nanoseconds
+   */
+  StepResult(int clients, long durationNanos) {
+    this.clients = clients;
+    this.durationNanos = durationNanos;
+  }
+
+  /**
+   * Add the searches of a client that has finished.
+   *
+   * @param client the client
+   */
+  void add(LoadTest.Client client) {
+    latencies = Arrays.copyOf(latencies, answered + client.answered);
+    System.arraycopy(client.latencies, 0, latencies, answered, client.answered);
+    sorted = false;
+    answered += client.answered;
+    rejected += client.rejected;
+    failed += client.failed;
+  }
+
+  /**
+   * Gets the searches answered by second.
+   *
+   * @return the throughput
+   */
+  double throughput() {
+    return answered / (durationNanos / 1e9d);
+  }
+
+  /**
+   * Gets the fraction of the searches that were rejected or failed.
+   *
+   * @return the rate of errors, from 0 to 1
+   */
+  double errorRate() {
+    int requests = answered + rejected + failed;
+    return requests == 0 ? 0 : (double) (rejected + failed) / requests;
+  }
+
+  /**
+   * Gets a percentile of the latency of the searches answered.
+   *
+   * @param percentile the percentile, from 0 to 100
+   * @return the latency, in milliseconds, or 0 if no search was answered
+   */
+  double latencyMillis(double percentile) {
+    if (answered == 0) {
+      return 0;
+    }
+    if (!sorted) {
+      Arrays.sort(latencies);
+      sorted = true;
+    }
+    int position = (int) Math.ceil(percentile / 100 * answered) - 1;
+    return latencies[Math.max(0, Math.min(answered - 1, position))]
+        / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * Format the result as a line of the table printed.
+   *
+   * @return the line
+   */
+  String format() {
+    return String.format(Locale.ROOT,
+        "%8d %10d %10d %8d %7.2f%% %12.1f %10.2f %10.2f %10.2f %10.2f", clients,
+        answered + rejected + failed, rejected, failed, this.errorRate() * 100, this.throughput(),
+        this.latencyMillis(50), this.latencyMillis(99), this.latencyMillis(99.9),
+        this.latencyMillis(100));
+  }
+
+  /**
+   * Format the result as a line of the CSV file.
+   *
+   * @return the line
+   */
+  String toCsv() {
+    return String.format(Locale.ROOT, "%d,%d,%d,%d,%.5f,%.2f,%.3f,%.3f,%.3f,%.3f", clients,
+        answered + rejected + failed, rejected, failed, this.errorRate(), this.throughput(),
+        this.latencyMillis(50), this.latencyMillis(99), this.latencyMillis(99.9),
+        this.latencyMillis(100));
+  }
+}
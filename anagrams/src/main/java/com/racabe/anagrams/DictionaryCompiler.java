@@ -0,0 +1,49 @@
+package com.racabe.anagrams;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryBuilder;
+import com.racabe.anagrams.model.DictionaryFile;
+import com.racabe.anagrams.model.DictionaryReader;
+
+/**
+ * The class DictionaryCompiler, the offline step that compiles a list of words into a binary file
+ * with the index of the dictionary. The service maps a compiled dictionary instead of parsing it,
+ * so it is ready to search as soon as it starts.
+ *
+ * <p>Usage: {@code DictionaryCompiler <list of words> <compiled dictionary>}
+ */
+public final class DictionaryCompiler {
+
+  // Private constructor to prevent instantiation
+  private DictionaryCompiler() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Compile a list of words.
+   *
+   * @param args the path of the list of words and the path of the compiled dictionary
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: DictionaryCompiler <list of words> <compiled dictionary>");
+      System.exit(1);
+    }
+
+    Path source = Paths.get(args[0]);
+    Path target = Paths.get(args[1]);
+    long startTime = System.currentTimeMillis();
+
+    Dictionary dictionary =
+        new DictionaryReader(new DictionaryBuilder()).read(source).build(source.toString(), 1L);
+    DictionaryFile.write(dictionary, target);
+
+    System.out.println("Compiled " + dictionary.size() + " words into " + target + " in "
+        + (System.currentTimeMillis() - startTime) + " ms");
+  }
+}
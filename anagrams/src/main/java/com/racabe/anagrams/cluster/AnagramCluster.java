@@ -0,0 +1,59 @@
+package com.racabe.anagrams.cluster;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.racabe.anagrams.search.AnagramPeer;
+
+/**
+ * The class AnagramCluster, the other nodes of the service among which this node spreads the
+ * heaviest searches, and the executor of the requests sent to them. A cluster without peers
+ * searches everything into this node.
+ */
+public class AnagramCluster {
+
+  /** The peers. */
+  private final List<AnagramPeer> peers;
+
+  /** The executor of the requests to the peers. */
+  private final Executor executor;
+
+  /**
+   * Instantiates a new cluster.
+   *
+   * @param peers the peers
+   * @param executor the executor of the requests to the peers
+   */
+  public AnagramCluster(List<AnagramPeer> peers, Executor executor) {
+    this.peers = Collections.unmodifiableList(peers);
+    this.executor = executor;
+  }
+
+  /**
+   * Gets the peers.
+   *
+   * @return the peers, in the order they were configured
+   */
+  public List<AnagramPeer> getPeers() {
+    return peers;
+  }
+
+  /**
+   * Gets the executor of the requests to the peers.
+   *
+   * @return the executor
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Method to know if the cluster has any peer.
+   *
+   * @return true if there is no peer
+   */
+  public boolean isEmpty() {
+    return peers.isEmpty();
+  }
+}
@@ -0,0 +1,115 @@
+package com.racabe.anagrams.cluster;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.racabe.anagrams.controller.converter.AnagramPageHttpMessageConverter;
+import com.racabe.anagrams.controller.uri.AnagramRestURIConstants;
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.search.AnagramPage;
+import com.racabe.anagrams.search.AnagramPeer;
+import com.racabe.anagrams.search.AnagramQuery;
+
+/**
+ * The class HttpAnagramPeer, a peer of a distributed search reached by HTTP. The range of parts is
+ * asked to the partition endpoint of the peer, with the fingerprint of the dictionary of the
+ * coordinator, and the anagrams are answered in the compact binary format, so the words are sent
+ * only once.
+ */
+public class HttpAnagramPeer implements AnagramPeer {
+
+  /** The time for a peer to answer the anagrams found after its search stopped, in milliseconds. */
+  private static final long ANSWER_MILLIS = 1000;
+
+  /** The URL of the service of the peer, with its context path. */
+  private final String baseUrl;
+
+  /** The maximum time to connect to the peer, in milliseconds. */
+  private final int connectTimeout;
+
+  /** The maximum time to wait for the answer of the peer, in milliseconds. */
+  private final int readTimeout;
+
+  /** The converter of the pages of anagrams answered by the peer. */
+  private final AnagramPageHttpMessageConverter converter = new AnagramPageHttpMessageConverter();
+
+  /**
+   * Instantiates a new peer reached by HTTP.
+   *
+   * @param baseUrl the URL of the service of the peer, with its context path
+   * @param connectTimeout the maximum time to connect to the peer, in milliseconds
+   * @param readTimeout the maximum time to wait for the answer of the peer, in milliseconds
+   */
+  public HttpAnagramPeer(String baseUrl, int connectTimeout, int readTimeout) {
+    this.baseUrl = baseUrl;
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * Ask the peer for the anagrams of a range of the parts of a query. A peer that does not answer
+   * before the time of the query, plus the time to answer, is given up.
+   *
+   * @param dictionary the snapshot of the dictionary of the coordinator
+   * @param query the word or phrase used to search anagrams, and the limits and the time left
+   * @param from the first part of the range
+   * @param to the end of the range, exclusive
+   * @param parts the number of parts of the query
+   * @return the anagrams found by the peer, with the cursor of the version of the peer
+   * @throws IOException if the peer can not be reached, it fails or it does not answer in time
+   */
+  @Override
+  public AnagramPage search(Dictionary dictionary, AnagramQuery query, int from, int to,
+      int parts) throws IOException {
+    URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl)
+        .path(AnagramRestURIConstants.GET_DICTIONARY_ANAGRAMS_PARTITION)
+        .queryParam("words", query.getWords())
+        .queryParam("minWordLength", query.getMinWordLength())
+        .queryParam("maxWords", query.getMaxWords())
+        .queryParam("timeout", query.getTimeoutMillis())
+        .queryParam("from", from)
+        .queryParam("to", to)
+        .queryParam("parts", parts)
+        .queryParam("fingerprint", dictionary.getFingerprint())
+        .buildAndExpand(dictionary.getId())
+        .encode()
+        .toUri();
+
+    // The factory is cheap, and a new one lets each request have its own timeout
+    SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+    factory.setConnectTimeout(connectTimeout);
+    factory.setReadTimeout(query.getTimeoutMillis() > 0
+        ? (int) Math.min(readTimeout, query.getTimeoutMillis() + ANSWER_MILLIS) : readTimeout);
+
+    // JSON is accepted too, so the errors of the peer keep their status
+    ClientHttpRequest request = factory.createRequest(uri, HttpMethod.GET);
+    request.getHeaders().setAccept(Arrays.asList(AnagramPageHttpMessageConverter.MEDIA_TYPE,
+        MediaType.parseMediaType(MediaType.APPLICATION_JSON_VALUE + ";q=0.5")));
+    try (ClientHttpResponse response = request.execute()) {
+      if (response.getRawStatusCode() != HttpStatus.OK.value()) {
+        throw new IOException(
+            "The peer " + baseUrl + " answered the status " + response.getRawStatusCode());
+      }
+      return converter.read(AnagramPage.class, response);
+    }
+  }
+
+  /**
+   * Gets the URL of the peer.
+   *
+   * @return the URL of the service of the peer
+   */
+  @Override
+  public String toString() {
+    return baseUrl;
+  }
+}
@@ -0,0 +1,58 @@
+package com.racabe.anagrams.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.racabe.anagrams.search.AnagramCacheKey;
+import com.racabe.anagrams.search.AnagramPage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * The class CacheConfig, where the cache of the pages of anagrams is configured.
+ */
+@Configuration
+@ConditionalOnProperty(name = "anagrams.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheConfig {
+
+  /** The maximum number of anagrams kept into the cache, adding up all the pages. */
+  @Value("${anagrams.cache.max-anagrams:2000000}")
+  private long maxAnagrams;
+
+  /** The time a page is kept into the cache since it was found, in seconds. */
+  @Value("${anagrams.cache.ttl:600}")
+  private long ttl;
+
+  /** The registry where the hits, misses and evictions of the cache are exported, or null. */
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The cache of the pages of anagrams. Each page weighs as many anagrams as it has, so a few huge
+   * pages can not fill the memory, and the entries are evicted with the W-TinyLFU policy of
+   * Caffeine, which keeps the phrases queried often.
+   *
+   * @return the cache
+   */
+  @Bean
+  public Cache<AnagramCacheKey, AnagramPage> anagramCache() {
+    Cache<AnagramCacheKey, AnagramPage> cache = Caffeine.newBuilder()
+        .maximumWeight(maxAnagrams)
+        .weigher((AnagramCacheKey key, AnagramPage page) -> page.getAnagrams().size() + 1)
+        .expireAfterWrite(ttl, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+    if (meterRegistry != null) {
+      CaffeineCacheMetrics.monitor(meterRegistry, cache, "anagrams");
+    }
+    return cache;
+  }
+}
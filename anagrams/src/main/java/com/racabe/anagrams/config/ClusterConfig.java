@@ -0,0 +1,73 @@
+package com.racabe.anagrams.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.StringUtils;
+
+import com.racabe.anagrams.cluster.AnagramCluster;
+import com.racabe.anagrams.cluster.HttpAnagramPeer;
+import com.racabe.anagrams.search.AnagramPeer;
+
+/**
+ * The class ClusterConfig, where the peers of the distributed searches and the pool of threads of
+ * the requests sent to them are configured.
+ */
+@Configuration
+public class ClusterConfig {
+
+  /** The URLs of the services of the peers, with their context path. */
+  @Value("${anagrams.cluster.peers:}")
+  private String[] peerUrls;
+
+  /** The maximum time to connect to a peer, in milliseconds. */
+  @Value("${anagrams.cluster.connect-timeout:1000}")
+  private int connectTimeout;
+
+  /** The maximum time to wait for the answer of a peer, in milliseconds. */
+  @Value("${anagrams.cluster.peer-timeout:15000}")
+  private int peerTimeout;
+
+  /** The number of threads waiting for the answers of the peers. */
+  @Value("${anagrams.cluster.pool-size:16}")
+  private int clusterPoolSize;
+
+  /**
+   * The executor of the requests to the peers. The threads only wait for the answers, so there can
+   * be more than cores. When all of them are busy, the thread of the search sends the request
+   * itself, so a distributed search is slowed down instead of rejected.
+   *
+   * @return the executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor clusterTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(clusterPoolSize);
+    executor.setMaxPoolSize(clusterPoolSize);
+    executor.setQueueCapacity(0);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setThreadNamePrefix("anagrams-cluster-");
+    return executor;
+  }
+
+  /**
+   * The peers of the distributed searches, empty when no peer is configured.
+   *
+   * @return the cluster
+   */
+  @Bean
+  public AnagramCluster anagramCluster() {
+    List<AnagramPeer> peers = new ArrayList<AnagramPeer>();
+    for (String peerUrl : peerUrls) {
+      if (StringUtils.hasText(peerUrl)) {
+        peers.add(new HttpAnagramPeer(peerUrl.trim(), connectTimeout, peerTimeout));
+      }
+    }
+    return new AnagramCluster(peers, clusterTaskExecutor());
+  }
+}
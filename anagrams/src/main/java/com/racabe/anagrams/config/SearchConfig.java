@@ -0,0 +1,87 @@
+package com.racabe.anagrams.config;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * The class SearchConfig, where the pools of threads of the searches, of the parallel searches and
+ * of the batches of phrases are configured.
+ */
+@Configuration
+public class SearchConfig {
+
+  /** The number of threads of the parallel searches, 0 to use all the cores. */
+  @Value("${anagrams.search.parallelism:0}")
+  private int parallelism;
+
+  /** The number of threads searching the requests, 0 to use all the cores. */
+  @Value("${anagrams.search.pool-size:0}")
+  private int searchPoolSize;
+
+  /** The maximum number of searches waiting for a thread. */
+  @Value("${anagrams.search.queue-capacity:64}")
+  private int searchQueueCapacity;
+
+  /** The number of threads searching the phrases of the batches. */
+  @Value("${anagrams.batch.pool-size:2}")
+  private int batchPoolSize;
+
+  /** The maximum number of phrases of all the batches waiting to be searched. */
+  @Value("${anagrams.batch.queue-capacity:256}")
+  private int batchQueueCapacity;
+
+  /**
+   * The pool of the parallel searches. It is shared by all the requests, so the number of threads
+   * searching at the same time is bounded by the number of cores whatever the number of requests.
+   *
+   * @return the pool
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ForkJoinPool searchPool() {
+    return new ForkJoinPool(
+        parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * The executor of the searches of the requests. The searches run apart from the threads of the
+   * server, so a few long searches can not take all of them and the cheap requests, like the pages
+   * into the cache, are still answered. When the queue is full, the search is rejected with the
+   * default abort policy, and the request is answered with a 429 status.
+   *
+   * @return the executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor searchTaskExecutor() {
+    int poolSize =
+        searchPoolSize > 0 ? searchPoolSize : Runtime.getRuntime().availableProcessors();
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(searchQueueCapacity);
+    executor.setThreadNamePrefix("anagrams-search-");
+    return executor;
+  }
+
+  /**
+   * The executor of the phrases of the batches. It is apart from the threads of the requests and
+   * from the pool of the parallel searches, so a batch can not starve the interactive requests.
+   * Each batch has only a few phrases into it at the same time, and when the queue is full the
+   * batch is rejected with the default abort policy, and the request is answered with a 429
+   * status.
+   *
+   * @return the executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor batchTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(batchPoolSize);
+    executor.setMaxPoolSize(batchPoolSize);
+    executor.setQueueCapacity(batchQueueCapacity);
+    executor.setThreadNamePrefix("anagrams-batch-");
+    return executor;
+  }
+}
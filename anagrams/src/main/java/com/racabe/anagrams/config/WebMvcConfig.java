@@ -0,0 +1,97 @@
+package com.racabe.anagrams.config;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import com.racabe.anagrams.controller.converter.AnagramPageHttpMessageConverter;
+
+/**
+ * The class WebMvcConfig, where the asynchronous requests, like the streams of anagrams, and the
+ * encodings of the responses are configured.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+  /** The maximum number of responses streamed at the same time. */
+  @Value("${anagrams.stream.pool-size:8}")
+  private int streamPoolSize;
+
+  /** The maximum number of responses waiting to be streamed. */
+  @Value("${anagrams.stream.queue-capacity:64}")
+  private int streamQueueCapacity;
+
+  /** The maximum time to stream a response, in milliseconds. */
+  @Value("${anagrams.stream.timeout:300000}")
+  private long streamTimeout;
+
+  /**
+   * The executor of the streams of anagrams. It is bounded, so a burst of streams can not create an
+   * unlimited number of threads.
+   *
+   * @return the executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor streamTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(streamPoolSize);
+    executor.setMaxPoolSize(streamPoolSize);
+    executor.setQueueCapacity(streamQueueCapacity);
+    executor.setThreadNamePrefix("anagrams-stream-");
+    return executor;
+  }
+
+  /**
+   * The converter of the pages of anagrams to the compact binary format. Spring Boot adds it to the
+   * converters of the responses, so it is chosen by the header Accept.
+   *
+   * @return the converter
+   */
+  @Bean
+  public AnagramPageHttpMessageConverter anagramPageHttpMessageConverter() {
+    return new AnagramPageHttpMessageConverter();
+  }
+
+  /**
+   * Configure the asynchronous requests to use the executor of the streams.
+   *
+   * @param configurer the configurer
+   */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(streamTaskExecutor());
+    configurer.setDefaultTimeout(streamTimeout);
+  }
+
+  /**
+   * Forget the media types produced by the handler of a failed request when the error is rendered.
+   * Otherwise the error of a request for a binary page of anagrams can not be written as JSON, even
+   * when the request accepts JSON too, and it is answered with the status 406 instead of its own.
+   *
+   * @param registry the registry of the interceptors
+   */
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new HandlerInterceptorAdapter() {
+
+      @Override
+      public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+          Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ERROR) {
+          request.removeAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE);
+        }
+        return true;
+      }
+    });
+  }
+}
@@ -2,21 +2,44 @@ package com.racabe.anagrams.controller;
 
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.racabe.anagrams.controller.converter.AnagramPageHttpMessageConverter;
 import com.racabe.anagrams.controller.uri.AnagramRestURIConstants;
+import com.racabe.anagrams.exception.SearchRejectedException;
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryDelta;
+import com.racabe.anagrams.search.AnagramPage;
+import com.racabe.anagrams.search.AnagramQuery;
+import com.racabe.anagrams.search.AnagramSearch;
 import com.racabe.anagrams.service.IDictionaryService;
 
 /**
@@ -25,46 +48,650 @@ import com.racabe.anagrams.service.IDictionaryService;
 @Controller
 public class AnagramController {
 
+  /** The media type of the streams of anagrams, one JSON value by line. */
+  private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
   /** The dictionary service. */
   @Autowired
   private IDictionaryService dictionaryService;
 
+  /** The seconds a client should wait to try again a search rejected because the server is busy. */
+  @Value("${anagrams.search.retry-after:1}")
+  private int retryAfter;
+
+  /** The object mapper used to write the streams of anagrams. */
+  @Autowired
+  private ObjectMapper objectMapper;
+
   /**
    * HTTP request to get all possible anagrams for a word into a dictionary given.
    *
    * @param dictionary the dictionary file with all words accepted
    * @param words the word or phrase used to search anagrams
+   * @param minWordLength the minimum length for a valid word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @param maxResults the maximum number of anagrams to return, 0 for no limit
+   * @param timeout the maximum time to search, in milliseconds
    * @return Return all possible anagrams for the words found into the dictionary and the time used
-   *         to resolve it into a JSON object
+   *         to resolve it into a JSON object, when the search finishes
    */
   @CrossOrigin(origins = "http://localhost:4200")
   @RequestMapping(value = AnagramRestURIConstants.POST_ANAGRAMS, method = RequestMethod.POST,
       produces = MediaType.APPLICATION_JSON_VALUE)
-  public @ResponseBody Map<String, Object> getDiagramsUsingDictionary(
+  public @ResponseBody DeferredResult<Map<String, Object>> getDiagramsUsingDictionary(
       @RequestParam(name = "dictionaryFile", required = true) MultipartFile dictionary,
-      @RequestParam(name = "words", required = true) String words) {
+      @RequestParam(name = "words", required = true) String words,
+      @RequestParam(name = "minWordLength", defaultValue = "3") int minWordLength,
+      @RequestParam(name = "maxWords", defaultValue = "0") int maxWords,
+      @RequestParam(name = "maxResults", defaultValue = "0") int maxResults,
+      @RequestParam(name = "timeout", defaultValue = "0") long timeout) {
 
     // Register start time
-    long startTime = System.currentTimeMillis();
+    long startTime = System.nanoTime();
 
     // We load the dictionary in memory, classifying it according to the length of the words it has
-    // and a hashcode that we associate with the words
-    dictionaryService.parseDictionaryToHastableByWordLength(dictionary);
+    // and a hashcode that we associate with the words. The snapshot is private to this request
+    Dictionary uploaded = dictionaryService.parseDictionaryToHastableByWordLength(dictionary);
 
-    // Search the anagrams
-    Set<String> anagrams = dictionaryService.getAnagrams(words);
+    // Search the anagrams out of the thread of the request
+    return this.toDeferredResult(dictionaryService.getAnagramsAsync(uploaded,
+        this.buildQuery(words, minWordLength, maxWords, maxResults, timeout, null))
+        .thenApply(anagrams -> {
+          // The uploaded dictionary is not kept, so the search can not be resumed
+          Map<String, Object> result = this.buildAnagramsResult(words, anagrams, startTime);
+          result.remove("nextCursor");
+          return result;
+        }));
+  }
 
-    // Register finish time
-    long endTime = System.currentTimeMillis();
-    double totalTime = (endTime - startTime) / 1000d;
+  /**
+   * HTTP request to get all possible anagrams for a word into a dictionary given, in the compact
+   * binary format of {@link AnagramPageHttpMessageConverter}, chosen with the header
+   * "Accept: application/x-anagram-page". The page is written straight to the response from the
+   * ids of the words, with each word only once.
+   *
+   * @param dictionary the dictionary file with all words accepted
+   * @param words the word or phrase used to search anagrams
+   * @param minWordLength the minimum length for a valid word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @param maxResults the maximum number of anagrams to return, 0 for no limit
+   * @param timeout the maximum time to search, in milliseconds
+   * @return the page of anagrams, without cursor, when the search finishes
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.POST_ANAGRAMS, method = RequestMethod.POST,
+      produces = AnagramPageHttpMessageConverter.MEDIA_TYPE_VALUE)
+  public @ResponseBody DeferredResult<AnagramPage> getAnagramPageUsingDictionary(
+      @RequestParam(name = "dictionaryFile", required = true) MultipartFile dictionary,
+      @RequestParam(name = "words", required = true) String words,
+      @RequestParam(name = "minWordLength", defaultValue = "3") int minWordLength,
+      @RequestParam(name = "maxWords", defaultValue = "0") int maxWords,
+      @RequestParam(name = "maxResults", defaultValue = "0") int maxResults,
+      @RequestParam(name = "timeout", defaultValue = "0") long timeout) {
+    Dictionary uploaded = dictionaryService.parseDictionaryToHastableByWordLength(dictionary);
+
+    return this.toDeferredResult(dictionaryService.getAnagramsAsync(uploaded,
+        this.buildQuery(words, minWordLength, maxWords, maxResults, timeout, null))
+        // The uploaded dictionary is not kept, so the search can not be resumed
+        .thenApply(anagrams -> new AnagramPage(anagrams.getAnagrams(), anagrams.isComplete(),
+            anagrams.isTimedOut(), null)));
+  }
+
+  /**
+   * HTTP request to load a dictionary once, so it can be queried later by its id.
+   *
+   * @param dictionary the dictionary file with all words accepted
+   * @param dictionaryId the id to give to the dictionary, by default the name of the file
+   * @return Return the id of the dictionary loaded and the time used to load it into a JSON object
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.DICTIONARIES, method = RequestMethod.POST,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Map<String, Object> loadDictionary(
+      @RequestParam(name = "dictionaryFile", required = true) MultipartFile dictionary,
+      @RequestParam(name = "id", required = false) String dictionaryId) {
+
+    // Register start time
+    long startTime = System.nanoTime();
+
+    String id = dictionaryService.loadDictionary(dictionaryId, dictionary);
 
-    // Put the anagrams and time in a map to return the JSON object
-    NumberFormat formatter = new DecimalFormat("#0.00000");
     Map<String, Object> result = new HashMap<String, Object>();
-    result.put("word", words);
+    result.put("id", id);
+    result.put("seconds", this.formatSeconds(startTime));
+
+    return result;
+  }
+
+  /**
+   * HTTP request to get the ids of the dictionaries loaded.
+   *
+   * @return the ids of the dictionaries loaded
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.DICTIONARIES, method = RequestMethod.GET,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Set<String> getDictionaries() {
+    return dictionaryService.getDictionaryIds();
+  }
+
+  /**
+   * HTTP request to get the size and the memory used by a dictionary loaded previously.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @return the id, version, number of words, bytes of heap used by the dictionary and bytes mapped
+   *         from a compiled file into a JSON object
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.GET_DICTIONARY, method = RequestMethod.GET,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Map<String, Object> getDictionary(
+      @PathVariable("dictionaryId") String dictionaryId) {
+    Dictionary dictionary = dictionaryService.getDictionary(dictionaryId);
+    long memoryBytes = dictionary.memoryFootprint();
+
+    Map<String, Object> result = new HashMap<String, Object>();
+    result.put("id", dictionary.getId());
+    result.put("version", dictionary.getVersion());
+    result.put("words", dictionary.size());
+    result.put("memoryBytes", memoryBytes);
+    result.put("bytesPerWord", dictionary.size() == 0 ? 0 : memoryBytes / dictionary.size());
+    result.put("mappedBytes", dictionary.mappedBytes());
+
+    return result;
+  }
+
+  /**
+   * HTTP request to add a word to a dictionary loaded previously, publishing a new version of it
+   * without loading the whole dictionary again.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param word the word
+   * @return the id, the new version and the number of words of the dictionary into a JSON object
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.DICTIONARY_WORDS, method = RequestMethod.POST,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Map<String, Object> addWord(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestParam(name = "word", required = true) String word) {
+
+    // Register start time
+    long startTime = System.nanoTime();
+
+    Dictionary dictionary =
+        dictionaryService.updateDictionary(dictionaryId, new DictionaryDelta().addWord(word));
+    return this.buildUpdateResult(dictionary, startTime);
+  }
+
+  /**
+   * HTTP request to remove a word from a dictionary loaded previously, publishing a new version of
+   * it without loading the whole dictionary again.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param word the word
+   * @return the id, the new version and the number of words of the dictionary into a JSON object
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.DICTIONARY_WORDS, method = RequestMethod.DELETE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Map<String, Object> removeWord(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestParam(name = "word", required = true) String word) {
+
+    // Register start time
+    long startTime = System.nanoTime();
+
+    Dictionary dictionary =
+        dictionaryService.updateDictionary(dictionaryId, new DictionaryDelta().removeWord(word));
+    return this.buildUpdateResult(dictionary, startTime);
+  }
+
+  /**
+   * HTTP request to add and remove the words of a delta file to a dictionary loaded previously.
+   * Each line of the file has a word to add, optionally after a "+", or a word to remove after a
+   * "-".
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param deltaFile the delta file
+   * @return the id, the new version and the number of words of the dictionary into a JSON object
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.POST_DICTIONARY_DELTA,
+      method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Map<String, Object> updateDictionary(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestParam(name = "deltaFile", required = true) MultipartFile deltaFile) {
+
+    // Register start time
+    long startTime = System.nanoTime();
+
+    Dictionary dictionary = dictionaryService.updateDictionary(dictionaryId, deltaFile);
+    return this.buildUpdateResult(dictionary, startTime);
+  }
+
+  /**
+   * HTTP request to get the statistics of the cache of anagrams.
+   *
+   * @return the hits, misses and evictions of the cache and the number of pages and anagrams kept
+   *         into a JSON object
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.GET_CACHE_STATISTICS,
+      method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Map<String, Object> getCacheStatistics() {
+    return dictionaryService.getCacheStatistics();
+  }
+
+  /**
+   * HTTP request to get all possible anagrams for a word into a dictionary loaded previously.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param words the word or phrase used to search anagrams
+   * @param minWordLength the minimum length for a valid word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @param maxResults the maximum number of anagrams to return, 0 for no limit
+   * @param timeout the maximum time to search, in milliseconds
+   * @param cursor the cursor returned by the previous page, to get the next anagrams
+   * @return Return the anagrams for the words found into the dictionary, whether the search is
+   *         complete or the cursor to get the next anagrams, and the time used to resolve it into a
+   *         JSON object, when the search finishes
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.GET_DICTIONARY_ANAGRAMS,
+      method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody DeferredResult<Map<String, Object>> getAnagrams(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestParam(name = "words", required = true) String words,
+      @RequestParam(name = "minWordLength", defaultValue = "3") int minWordLength,
+      @RequestParam(name = "maxWords", defaultValue = "0") int maxWords,
+      @RequestParam(name = "maxResults", defaultValue = "0") int maxResults,
+      @RequestParam(name = "timeout", defaultValue = "0") long timeout,
+      @RequestParam(name = "cursor", required = false) String cursor) {
+
+    // Register start time
+    long startTime = System.nanoTime();
+
+    // Search the anagrams out of the thread of the request, resolving the snapshot only once so a
+    // reload does not affect the search
+    return this.toDeferredResult(dictionaryService.getAnagramsAsync(
+        dictionaryService.getDictionary(dictionaryId),
+        this.buildQuery(words, minWordLength, maxWords, maxResults, timeout, cursor))
+        .thenApply(anagrams -> this.buildAnagramsResult(words, anagrams, startTime)));
+  }
+
+  /**
+   * HTTP request to get all possible anagrams for a word into a dictionary loaded previously, in
+   * the compact binary format of {@link AnagramPageHttpMessageConverter}, chosen with the header
+   * "Accept: application/x-anagram-page". The page is written straight to the response from the
+   * ids of the words, with each word only once.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param words the word or phrase used to search anagrams
+   * @param minWordLength the minimum length for a valid word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @param maxResults the maximum number of anagrams to return, 0 for no limit
+   * @param timeout the maximum time to search, in milliseconds
+   * @param cursor the cursor returned by the previous page, to get the next anagrams
+   * @return the page of anagrams, when the search finishes
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.GET_DICTIONARY_ANAGRAMS,
+      method = RequestMethod.GET, produces = AnagramPageHttpMessageConverter.MEDIA_TYPE_VALUE)
+  public @ResponseBody DeferredResult<AnagramPage> getAnagramPage(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestParam(name = "words", required = true) String words,
+      @RequestParam(name = "minWordLength", defaultValue = "3") int minWordLength,
+      @RequestParam(name = "maxWords", defaultValue = "0") int maxWords,
+      @RequestParam(name = "maxResults", defaultValue = "0") int maxResults,
+      @RequestParam(name = "timeout", defaultValue = "0") long timeout,
+      @RequestParam(name = "cursor", required = false) String cursor) {
+    return this.toDeferredResult(dictionaryService.getAnagramsAsync(
+        dictionaryService.getDictionary(dictionaryId),
+        this.buildQuery(words, minWordLength, maxWords, maxResults, timeout, cursor)));
+  }
+
+  /**
+   * HTTP request to get the anagrams of a range of the parts of a query, sent by the coordinator of
+   * a distributed search to its peers. The parts are the signatures that can be the first word of
+   * an anagram, in the order of the split of the query, and the page is answered in the compact
+   * binary format of {@link AnagramPageHttpMessageConverter}. The range is searched out of the
+   * thread of the request, and when the server is busy it is rejected at once, so the coordinator
+   * sends it to the next peer.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param words the word or phrase used to search anagrams
+   * @param minWordLength the minimum length for a valid word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @param timeout the maximum time to search, in milliseconds
+   * @param from the first part of the range
+   * @param to the end of the range, exclusive
+   * @param parts the number of parts of the query for the coordinator
+   * @param fingerprint the fingerprint of the dictionary of the coordinator
+   * @return the anagrams of the range and the cursor where the search stopped, when the search
+   *         finishes
+   */
+  @RequestMapping(value = AnagramRestURIConstants.GET_DICTIONARY_ANAGRAMS_PARTITION,
+      method = RequestMethod.GET, produces = AnagramPageHttpMessageConverter.MEDIA_TYPE_VALUE)
+  public @ResponseBody DeferredResult<AnagramPage> getAnagramPartition(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestParam(name = "words", required = true) String words,
+      @RequestParam(name = "minWordLength", defaultValue = "3") int minWordLength,
+      @RequestParam(name = "maxWords", defaultValue = "0") int maxWords,
+      @RequestParam(name = "timeout", defaultValue = "0") long timeout,
+      @RequestParam(name = "from", required = true) int from,
+      @RequestParam(name = "to", required = true) int to,
+      @RequestParam(name = "parts", required = true) int parts,
+      @RequestParam(name = "fingerprint", required = true) String fingerprint) {
+    return this.toDeferredResult(dictionaryService.getAnagramPartitionAsync(
+        dictionaryService.getDictionary(dictionaryId),
+        this.buildQuery(words, minWordLength, maxWords, 0, timeout, null), fingerprint, from, to,
+        parts));
+  }
+
+  /**
+   * HTTP request to get the anagrams of many phrases into a dictionary loaded previously in only
+   * one request. The phrases with the same letters and limits are searched only once, and the
+   * phrases are searched by a pool of bounded size out of the thread of the request, so a big
+   * batch does not take the threads of the other requests.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param phrases the phrases used to search anagrams, as a JSON array
+   * @param minWordLength the minimum length for a valid word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @param maxResults the maximum number of anagrams to return for each phrase, 0 for no limit
+   * @param timeout the maximum time to search each phrase, in milliseconds
+   * @return the anagrams of each phrase, in the same order as the phrases, and the time used to
+   *         resolve them into a JSON object, when all the searches finish
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.POST_DICTIONARY_ANAGRAMS_BATCH,
+      method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody DeferredResult<Map<String, Object>> getAnagramsBatch(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestBody List<String> phrases,
+      @RequestParam(name = "minWordLength", defaultValue = "3") int minWordLength,
+      @RequestParam(name = "maxWords", defaultValue = "0") int maxWords,
+      @RequestParam(name = "maxResults", defaultValue = "0") int maxResults,
+      @RequestParam(name = "timeout", defaultValue = "0") long timeout) {
+
+    // Register start time
+    long startTime = System.nanoTime();
+
+    List<AnagramQuery> queries = new ArrayList<AnagramQuery>(phrases.size());
+    for (String words : phrases) {
+      queries.add(this.buildQuery(words, minWordLength, maxWords, maxResults, timeout, null));
+    }
+    return this.toDeferredResult(dictionaryService
+        .getAnagramsAsync(dictionaryService.getDictionary(dictionaryId), queries)
+        .thenApply(pages -> {
+          List<Map<String, Object>> results = new ArrayList<Map<String, Object>>(pages.size());
+          for (int pos = 0; pos < pages.size(); pos++) {
+            results.add(this.buildPageResult(phrases.get(pos), pages.get(pos)));
+          }
+
+          Map<String, Object> result = new HashMap<String, Object>();
+          result.put("results", results);
+          result.put("seconds", this.formatSeconds(startTime));
+          return result;
+        }));
+  }
+
+  /**
+   * HTTP request to get the words of a dictionary loaded previously with the same letters as a
+   * word. The word is looked up by its letters, without searching the anagrams of several words.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param word the word
+   * @return the words with the same letters and the time used to find them into a JSON object
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.GET_DICTIONARY_LOOKUP,
+      method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Map<String, Object> lookupWord(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestParam(name = "word", required = true) String word) {
+
+    // Register start time
+    long startTime = System.nanoTime();
+
+    List<String> anagrams =
+        dictionaryService.getWordAnagrams(dictionaryService.getDictionary(dictionaryId), word);
+
+    Map<String, Object> result = new HashMap<String, Object>();
+    result.put("word", word);
     result.put("anagrams", anagrams);
-    result.put("seconds", formatter.format(totalTime));
+    result.put("seconds", this.formatSeconds(startTime));
+    return result;
+  }
+
+  /**
+   * HTTP request to get the words of a dictionary loaded previously that can be spelled with some
+   * letters, without using all of them.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param letters the letters available, with a "?" or "*" for each blank tile
+   * @param minWordLength the minimum length of the words
+   * @param maxResults the maximum number of words, 0 for no limit
+   * @return the words, from the longest ones to the shortest ones, and the time used to find them
+   *         into a JSON object
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.GET_DICTIONARY_SUBANAGRAMS,
+      method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Map<String, Object> getSubAnagrams(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestParam(name = "letters", required = true) String letters,
+      @RequestParam(name = "minWordLength", defaultValue = "2") int minWordLength,
+      @RequestParam(name = "maxResults", defaultValue = "0") int maxResults) {
+
+    // Register start time
+    long startTime = System.nanoTime();
+
+    List<String> words = dictionaryService.getSubAnagrams(
+        dictionaryService.getDictionary(dictionaryId), letters, minWordLength, maxResults);
+
+    Map<String, Object> result = new HashMap<String, Object>();
+    result.put("letters", letters);
+    result.put("words", words);
+    result.put("seconds", this.formatSeconds(startTime));
+    return result;
+  }
+
+  /**
+   * HTTP request to group a list of words into classes of anagrams, the words with the same
+   * letters.
+   *
+   * @param words the words, as a JSON array
+   * @param minGroupSize the minimum number of words of a class to return it
+   * @return the classes of anagrams and the time used to group them into a JSON object
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.POST_ANAGRAM_GROUPS, method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public @ResponseBody Map<String, Object> groupAnagrams(@RequestBody List<String> words,
+      @RequestParam(name = "minGroupSize", defaultValue = "1") int minGroupSize) {
+
+    // Register start time
+    long startTime = System.nanoTime();
+
+    List<List<String>> groups = dictionaryService.groupAnagrams(words, minGroupSize);
+
+    Map<String, Object> result = new HashMap<String, Object>();
+    result.put("groups", groups);
+    result.put("seconds", this.formatSeconds(startTime));
+    return result;
+  }
+
+  /**
+   * HTTP request to stream all possible anagrams for a word into a dictionary loaded previously.
+   * Each anagram is written as a JSON string on its own line (NDJSON) as soon as it is found, so
+   * the first results arrive before the search finishes and the anagrams are never kept in memory.
+   * The last line is a JSON object with whether the search is complete or timed out, and the
+   * cursor to resume it.
+   * The search runs in the thread writing the response, so a slow client slows down the search
+   * instead of making the results pile up.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param words the word or phrase used to search anagrams
+   * @param minWordLength the minimum length for a valid word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @param maxResults the maximum number of anagrams to return, 0 for no limit
+   * @param timeout the maximum time to search, in milliseconds
+   * @param cursor the cursor returned by a page, to stream the anagrams from there
+   * @return the stream of anagrams
+   */
+  @CrossOrigin(origins = "http://localhost:4200")
+  @RequestMapping(value = AnagramRestURIConstants.GET_DICTIONARY_ANAGRAMS_STREAM,
+      method = RequestMethod.GET)
+  public ResponseEntity<StreamingResponseBody> streamAnagrams(
+      @PathVariable("dictionaryId") String dictionaryId,
+      @RequestParam(name = "words", required = true) String words,
+      @RequestParam(name = "minWordLength", defaultValue = "3") int minWordLength,
+      @RequestParam(name = "maxWords", defaultValue = "0") int maxWords,
+      @RequestParam(name = "maxResults", defaultValue = "0") int maxResults,
+      @RequestParam(name = "timeout", defaultValue = "0") long timeout,
+      @RequestParam(name = "cursor", required = false) String cursor) {
+
+    // Resolve the snapshot before starting the response, to answer with an error if it is unknown
+    Dictionary dictionary = dictionaryService.getDictionary(dictionaryId);
+
+    AnagramQuery query =
+        this.buildQuery(words, minWordLength, maxWords, maxResults, timeout, cursor);
+    // And check the cursor, for the same reason
+    AnagramSearch.checkCursor(dictionary, query);
+
+    StreamingResponseBody body = outputStream -> {
+      NdjsonAnagramWriter writer = new NdjsonAnagramWriter(objectMapper, outputStream);
+      writer.close(dictionaryService.streamAnagrams(dictionary, query, writer));
+    };
+
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+        .body(body);
+  }
+
+  /**
+   * Answer a search rejected because the queue of the searches, or of the streams, is full, with a
+   * 429 status and the seconds to wait before trying again.
+   *
+   * @param ex the exception of the search rejected
+   * @return the error with the Retry-After header
+   */
+  @ExceptionHandler({SearchRejectedException.class, RejectedExecutionException.class})
+  public ResponseEntity<Map<String, Object>> handleSearchRejected(Exception ex) {
+    Map<String, Object> error = new HashMap<String, Object>();
+    error.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+    error.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+    error.put("message", SearchRejectedException.MESSAGE);
+    error.put("retryAfter", retryAfter);
+
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+        .contentType(MediaType.APPLICATION_JSON).body(error);
+  }
+
+  /**
+   * Answer a request when a future result is completed. The exceptions of the search are unwrapped,
+   * so they are answered with their own status and message.
+   *
+   * @param <T> the type of the result
+   * @param future the future result
+   * @return the deferred result of the request
+   */
+  private <T> DeferredResult<T> toDeferredResult(CompletableFuture<T> future) {
+    DeferredResult<T> result = new DeferredResult<T>();
+    future.whenComplete((value, ex) -> {
+      if (ex == null) {
+        result.setResult(value);
+      } else {
+        result.setErrorResult(
+            ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Create the query of a search with the parameters of a request.
+   *
+   * @param words the word or phrase used to search anagrams
+   * @param minWordLength the minimum length for a valid word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @param maxResults the maximum number of anagrams to return, 0 for no limit
+   * @param timeout the maximum time to search, in milliseconds
+   * @param cursor the cursor to resume a search from, or null
+   * @return the query
+   */
+  private AnagramQuery buildQuery(String words, int minWordLength, int maxWords, int maxResults,
+      long timeout, String cursor) {
+    return new AnagramQuery(words).minWordLength(minWordLength).maxWords(maxWords)
+        .maxResults(maxResults).timeoutMillis(timeout).cursor(cursor);
+  }
+
+  /**
+   * Put the anagrams and time in a map to return the JSON object.
+   *
+   * @param words the word or phrase used to search anagrams
+   * @param anagrams the page of anagrams found
+   * @param startTime the time when the request started, as given by {@link System#nanoTime()}
+   * @return the map with the word, the anagrams, the cursor to get the next ones and the time used
+   */
+  private Map<String, Object> buildAnagramsResult(String words, AnagramPage anagrams,
+      long startTime) {
+    Map<String, Object> result = this.buildPageResult(words, anagrams);
+    result.put("seconds", this.formatSeconds(startTime));
+
+    return result;
+  }
+
+  /**
+   * Put a page of anagrams in a map to return the JSON object.
+   *
+   * @param words the word or phrase used to search anagrams
+   * @param anagrams the page of anagrams found
+   * @return the map with the word, the anagrams and the cursor to get the next ones
+   */
+  private Map<String, Object> buildPageResult(String words, AnagramPage anagrams) {
+    Map<String, Object> result = new HashMap<String, Object>();
+    result.put("word", words);
+    result.put("anagrams", anagrams.getAnagrams());
+    result.put("complete", anagrams.isComplete());
+    result.put("timedOut", anagrams.isTimedOut());
+    result.put("nextCursor", anagrams.getNextCursor());
 
     return result;
   }
+
+  /**
+   * Put a dictionary updated in a map to return the JSON object.
+   *
+   * @param dictionary the new snapshot of the dictionary
+   * @param startTime the start time of the request, as given by {@link System#nanoTime()}
+   * @return the map with the id, the version, the number of words and the time used
+   */
+  private Map<String, Object> buildUpdateResult(Dictionary dictionary, long startTime) {
+    Map<String, Object> result = new HashMap<String, Object>();
+    result.put("id", dictionary.getId());
+    result.put("version", dictionary.getVersion());
+    result.put("words", dictionary.size());
+    result.put("seconds", this.formatSeconds(startTime));
+
+    return result;
+  }
+
+  /**
+   * Format the seconds elapsed since a start time.
+   *
+   * @param startTime the start time, as given by {@link System#nanoTime()}
+   * @return the seconds elapsed
+   */
+  private String formatSeconds(long startTime) {
+    // Register finish time
+    long endTime = System.nanoTime();
+    double totalTime = (endTime - startTime) / 1e9d;
+
+    NumberFormat formatter = new DecimalFormat("#0.00000");
+    return formatter.format(totalTime);
+  }
 }
@@ -0,0 +1,87 @@
+package com.racabe.anagrams.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.racabe.anagrams.search.AnagramConsumer;
+import com.racabe.anagrams.search.AnagramPage;
+
+/**
+ * The class NdjsonAnagramWriter, a consumer of anagrams that writes each one as a JSON string on
+ * its own line (NDJSON), and the state of the search as a JSON object on the last line. The first
+ * anagram is sent right away and then the buffers are flushed only from time to time. If the
+ * client goes away, the search is stopped.
+ */
+class NdjsonAnagramWriter implements AnagramConsumer {
+
+  /** The number of anagrams written between two flushes of the response. */
+  private static final int FLUSH_INTERVAL = 256;
+
+  /** The generator of the JSON values. */
+  private final JsonGenerator generator;
+
+  /** The number of anagrams written. */
+  private int written;
+
+  /** Whether the client has gone away. */
+  private boolean disconnected;
+
+  /**
+   * Instantiates a new NDJSON anagram writer.
+   *
+   * @param objectMapper the object mapper used to create the generator
+   * @param outputStream the output stream of the response
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  NdjsonAnagramWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+    this.generator = objectMapper.getFactory().createGenerator(outputStream);
+    this.generator.setRootValueSeparator(null);
+  }
+
+  /**
+   * Write an anagram.
+   *
+   * @param anagram the anagram
+   * @return true while the client is connected
+   */
+  @Override
+  public boolean accept(String anagram) {
+    try {
+      generator.writeString(anagram);
+      generator.writeRaw('\n');
+
+      // Send the first anagram right away, then let the buffers fill up
+      if (written++ % FLUSH_INTERVAL == 0) {
+        generator.flush();
+      }
+      return true;
+    } catch (IOException ex) {
+      // The client has gone away, so the search is stopped
+      disconnected = true;
+      return false;
+    }
+  }
+
+  /**
+   * Write the state of the search as the last line, a JSON object, then flush the anagrams pending
+   * and close the response, unless the client has gone away. So the client can tell a stream cut
+   * by the limits from a complete one, and resume it from the cursor.
+   *
+   * @param status the page without anagrams with the state of the search
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  void close(AnagramPage status) throws IOException {
+    if (!disconnected) {
+      generator.writeStartObject();
+      generator.writeBooleanField("complete", status.isComplete());
+      generator.writeBooleanField("timedOut", status.isTimedOut());
+      generator.writeStringField("nextCursor", status.getNextCursor());
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+      generator.close();
+    }
+  }
+}
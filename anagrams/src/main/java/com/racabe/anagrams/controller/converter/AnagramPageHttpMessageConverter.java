@@ -0,0 +1,453 @@
+package com.racabe.anagrams.controller.converter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.search.AnagramList;
+import com.racabe.anagrams.search.AnagramPage;
+
+/**
+ * The class AnagramPageHttpMessageConverter, that writes a page of anagrams in a compact binary
+ * format, chosen with the header "Accept: application/x-anagram-page", and reads it back, like the
+ * pages answered by the peers of a distributed search. Instead of repeating the words of every
+ * anagram as JSON strings, the page has a table with each word once, and each anagram is the
+ * positions of its words into the table. The page is written straight to the output stream from
+ * the ids of the words kept by the search, without rendering the anagrams.
+ *
+ * <p>The format is a version byte, a flags byte (1 complete, 2 timed out, 4 with a cursor), the
+ * cursor if any, the number of words of the table and the words, and the number of anagrams and,
+ * for each one, the number of its words and their positions into the table. The numbers are
+ * unsigned varints, 7 bits per byte from the least significant ones, and the strings are their
+ * length and their UTF-8 bytes. The table is sorted alphabetically and the positions of each
+ * anagram are increasing, so the words of an anagram are in the same order as in JSON.
+ */
+public class AnagramPageHttpMessageConverter extends AbstractHttpMessageConverter<AnagramPage> {
+
+  /** The media type of the binary format, as a string. */
+  public static final String MEDIA_TYPE_VALUE = "application/x-anagram-page";
+
+  /** The media type of the binary format. */
+  public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+  /** The version of the format. */
+  static final int FORMAT_VERSION = 1;
+
+  /** The flag of a complete page. */
+  static final int COMPLETE = 1;
+
+  /** The flag of a page stopped because the time was over. */
+  static final int TIMED_OUT = 2;
+
+  /** The flag of a page with a cursor to get the next anagrams. */
+  static final int WITH_CURSOR = 4;
+
+  /** The size of the buffer of the output stream. */
+  private static final int BUFFER_SIZE = 16 * 1024;
+
+  /**
+   * The maximum number of elements allocated ahead when reading a page, more are allocated only as
+   * they are read, so a forged count can not allocate more than the bytes of the page.
+   */
+  private static final int MAX_ALLOCATED_AHEAD = 1024;
+
+  /**
+   * Instantiates a new converter of the pages of anagrams.
+   */
+  public AnagramPageHttpMessageConverter() {
+    super(MEDIA_TYPE);
+  }
+
+  /**
+   * Method to know if a class is written by this converter.
+   *
+   * @param clazz the class
+   * @return true for the pages of anagrams
+   */
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return AnagramPage.class.isAssignableFrom(clazz);
+  }
+
+  /**
+   * Read a page of anagrams, like the ones answered by the peers of a distributed search.
+   *
+   * @param clazz the class
+   * @param inputMessage the message
+   * @return the page, with the anagrams rendered as strings
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Override
+  protected AnagramPage readInternal(Class<? extends AnagramPage> clazz,
+      HttpInputMessage inputMessage) throws IOException {
+    InputStream in = new BufferedInputStream(inputMessage.getBody(), BUFFER_SIZE);
+    int version = in.read();
+    if (version != FORMAT_VERSION) {
+      throw new HttpMessageNotReadableException(
+          "The version " + version + " of the pages of anagrams is not supported");
+    }
+    int flags = readByte(in);
+    String cursor = (flags & WITH_CURSOR) != 0 ? readString(in) : null;
+
+    int tableSize = readVarint(in);
+    String[] table = new String[Math.min(tableSize, MAX_ALLOCATED_AHEAD)];
+    for (int position = 0; position < tableSize; position++) {
+      if (position == table.length) {
+        table = Arrays.copyOf(table, (int) Math.min((long) table.length * 2, tableSize));
+      }
+      table[position] = readString(in);
+    }
+
+    int count = readVarint(in);
+    List<String> anagrams = new ArrayList<String>(Math.min(count, MAX_ALLOCATED_AHEAD));
+    StringBuilder anagram = new StringBuilder();
+    for (int index = 0; index < count; index++) {
+      anagram.setLength(0);
+      for (int words = readVarint(in); words > 0; words--) {
+        int position = readVarint(in);
+        if (position < 0 || position >= table.length) {
+          throw new HttpMessageNotReadableException("The page of anagrams is not valid");
+        }
+        anagram.append(anagram.length() == 0 ? "" : " ").append(table[position]);
+      }
+      anagrams.add(anagram.toString());
+    }
+    return new AnagramPage(anagrams, (flags & COMPLETE) != 0, (flags & TIMED_OUT) != 0, cursor);
+  }
+
+  /**
+   * Write a page of anagrams.
+   *
+   * @param page the page
+   * @param outputMessage the message
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Override
+  protected void writeInternal(AnagramPage page, HttpOutputMessage outputMessage)
+      throws IOException {
+    OutputStream out = new BufferedOutputStream(outputMessage.getBody(), BUFFER_SIZE);
+    out.write(FORMAT_VERSION);
+    out.write((page.isComplete() ? COMPLETE : 0) | (page.isTimedOut() ? TIMED_OUT : 0)
+        | (page.getNextCursor() != null ? WITH_CURSOR : 0));
+    if (page.getNextCursor() != null) {
+      writeString(out, page.getNextCursor());
+    }
+
+    List<String> anagrams = page.getAnagrams();
+    if (anagrams instanceof AnagramList) {
+      writeAnagrams(out, (AnagramList) anagrams);
+    } else {
+      writeAnagrams(out, anagrams);
+    }
+    out.flush();
+  }
+
+  /**
+   * Write the table of words and the anagrams of a list kept by the ids of their words.
+   *
+   * @param out the output stream
+   * @param anagrams the anagrams
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static void writeAnagrams(OutputStream out, AnagramList anagrams) throws IOException {
+    Dictionary dictionary = anagrams.getDictionary();
+    int[] ids = new int[8];
+
+    // Collect the ids of the words used, sizing the positions to the words of the anagrams
+    int wordCount = 0;
+    for (int index = 0; index < anagrams.size(); index++) {
+      wordCount += anagrams.getWordCount(index);
+    }
+    WordPositions tablePositions = new WordPositions(Math.min(wordCount, dictionary.size()));
+    int[] usedIds = new int[64];
+    int usedCount = 0;
+    for (int index = 0; index < anagrams.size(); index++) {
+      ids = ensureCapacity(ids, anagrams.getWordCount(index));
+      int count = anagrams.getWordIds(index, ids);
+      for (int pos = 0; pos < count; pos++) {
+        if (tablePositions.add(ids[pos])) {
+          usedIds = ensureCapacity(usedIds, usedCount + 1);
+          usedIds[usedCount++] = ids[pos];
+        }
+      }
+    }
+
+    // Sort the table alphabetically
+    String[] words = new String[usedCount];
+    Integer[] order = new Integer[usedCount];
+    for (int pos = 0; pos < usedCount; pos++) {
+      words[pos] = dictionary.getWord(usedIds[pos]);
+      order[pos] = pos;
+    }
+    Arrays.sort(order, (first, second) -> words[first].compareTo(words[second]));
+
+    writeVarint(out, usedCount);
+    for (int position = 0; position < usedCount; position++) {
+      tablePositions.put(usedIds[order[position]], position);
+      writeString(out, words[order[position]]);
+    }
+
+    writeVarint(out, anagrams.size());
+    for (int index = 0; index < anagrams.size(); index++) {
+      int count = anagrams.getWordIds(index, ids);
+      for (int pos = 0; pos < count; pos++) {
+        ids[pos] = tablePositions.get(ids[pos]);
+      }
+      Arrays.sort(ids, 0, count);
+      writeAnagram(out, ids, count);
+    }
+  }
+
+  /**
+   * Write the table of words and the anagrams of a list of anagrams rendered as strings.
+   *
+   * @param out the output stream
+   * @param anagrams the anagrams, with their words separated by a space
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static void writeAnagrams(OutputStream out, List<String> anagrams) throws IOException {
+    Map<String, Integer> table = new TreeMap<String, Integer>();
+    for (String anagram : anagrams) {
+      for (String word : anagram.split(" ")) {
+        table.put(word, 0);
+      }
+    }
+
+    writeVarint(out, table.size());
+    int position = 0;
+    for (Map.Entry<String, Integer> word : table.entrySet()) {
+      word.setValue(position++);
+      writeString(out, word.getKey());
+    }
+
+    writeVarint(out, anagrams.size());
+    int[] positions = new int[8];
+    for (String anagram : anagrams) {
+      String[] words = anagram.split(" ");
+      positions = ensureCapacity(positions, words.length);
+      for (int pos = 0; pos < words.length; pos++) {
+        positions[pos] = table.get(words[pos]);
+      }
+      Arrays.sort(positions, 0, words.length);
+      writeAnagram(out, positions, words.length);
+    }
+  }
+
+  /**
+   * Write an anagram, the number of its words and their positions into the table.
+   *
+   * @param out the output stream
+   * @param positions the positions of the words into the table
+   * @param count the number of words
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static void writeAnagram(OutputStream out, int[] positions, int count)
+      throws IOException {
+    writeVarint(out, count);
+    for (int pos = 0; pos < count; pos++) {
+      writeVarint(out, positions[pos]);
+    }
+  }
+
+  /**
+   * Write a string, its length and its UTF-8 bytes.
+   *
+   * @param out the output stream
+   * @param value the string
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static void writeString(OutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarint(out, bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Write an unsigned varint, 7 bits per byte from the least significant ones, with the highest
+   * bit set in all the bytes but the last one.
+   *
+   * @param out the output stream
+   * @param value the number, not negative
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  static void writeVarint(OutputStream out, int value) throws IOException {
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      out.write((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    out.write(remaining);
+  }
+
+  /**
+   * Read a byte that must be there.
+   *
+   * @param in the input stream
+   * @return the byte, from 0 to 255
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static int readByte(InputStream in) throws IOException {
+    int value = in.read();
+    if (value < 0) {
+      throw new HttpMessageNotReadableException("The page of anagrams is truncated");
+    }
+    return value;
+  }
+
+  /**
+   * Read a string written by {@link #writeString}.
+   *
+   * @param in the input stream
+   * @return the string
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static String readString(InputStream in) throws IOException {
+    int length = readVarint(in);
+    byte[] bytes = new byte[Math.min(length, BUFFER_SIZE)];
+    for (int read = 0; read < length;) {
+      if (read == bytes.length) {
+        bytes = Arrays.copyOf(bytes, (int) Math.min((long) bytes.length * 2, length));
+      }
+      int count = in.read(bytes, read, bytes.length - read);
+      if (count < 0) {
+        throw new HttpMessageNotReadableException("The page of anagrams is truncated");
+      }
+      read += count;
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read an unsigned varint written by {@link #writeVarint}.
+   *
+   * @param in the input stream
+   * @return the number, not negative
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  static int readVarint(InputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      int current = readByte(in);
+      // The fifth byte only has the highest bits of a number not negative, the 3 lowest ones
+      if (shift == 28 && (current & 0x78) != 0) {
+        break;
+      }
+      value |= (current & 0x7F) << shift;
+      if ((current & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new HttpMessageNotReadableException("The page of anagrams is not valid");
+  }
+
+  /**
+   * Grow an array if it has not room for some elements.
+   *
+   * @param array the array
+   * @param capacity the elements needed
+   * @return the array, or a copy with room for the elements
+   */
+  private static int[] ensureCapacity(int[] array, int capacity) {
+    return capacity <= array.length ? array
+        : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+  }
+
+  /**
+   * The class WordPositions, the positions into the table of the ids of the words used by a page,
+   * kept with open addressing into two arrays sized to the words of the page instead of the whole
+   * dictionary.
+   */
+  private static final class WordPositions {
+
+    /** The ids of the words, -1 for an empty slot. */
+    private final int[] ids;
+
+    /** The position into the table of the word of each slot. */
+    private final int[] positions;
+
+    /** The mask of the slots, the number of slots minus one. */
+    private final int mask;
+
+    /** The shift of the hash of an id to its first slot, keeping the bits of the mask. */
+    private final int shift;
+
+    /**
+     * Instantiates the positions of some words.
+     *
+     * @param maxWords the maximum number of words added
+     */
+    WordPositions(int maxWords) {
+      // At most half of the slots are used, so the probes are short
+      int slots = Integer.highestOneBit(Math.max(1, maxWords) * 2 - 1) * 2;
+      ids = new int[slots];
+      positions = new int[slots];
+      mask = slots - 1;
+      shift = Integer.numberOfLeadingZeros(mask);
+      Arrays.fill(ids, -1);
+    }
+
+    /**
+     * Add a word, with the position 0 until it is put.
+     *
+     * @param id the id of the word
+     * @return true if the word was not added before
+     */
+    boolean add(int id) {
+      int slot = this.slot(id);
+      if (ids[slot] == id) {
+        return false;
+      }
+      ids[slot] = id;
+      return true;
+    }
+
+    /**
+     * Put the position of a word added before.
+     *
+     * @param id the id of the word
+     * @param position the position into the table
+     */
+    void put(int id, int position) {
+      positions[this.slot(id)] = position;
+    }
+
+    /**
+     * Gets the position of a word added before.
+     *
+     * @param id the id of the word
+     * @return the position into the table
+     */
+    int get(int id) {
+      return positions[this.slot(id)];
+    }
+
+    /**
+     * Gets the slot of a word, the one with its id or the empty one where it goes.
+     *
+     * @param id the id of the word
+     * @return the slot
+     */
+    private int slot(int id) {
+      int slot = (id * 0x9E3779B9) >>> shift;
+      while (ids[slot] != id && ids[slot] >= 0) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+  }
+}
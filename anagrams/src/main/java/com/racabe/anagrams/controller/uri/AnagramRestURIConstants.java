@@ -6,4 +6,44 @@ package com.racabe.anagrams.controller.uri;
 public class AnagramRestURIConstants {
   /** The Constant POST_ANAGRAMS. */
   public static final String POST_ANAGRAMS = "/anagrams";
+
+  /** The Constant DICTIONARIES. */
+  public static final String DICTIONARIES = "/dictionaries";
+
+  /** The Constant GET_DICTIONARY. */
+  public static final String GET_DICTIONARY = "/dictionaries/{dictionaryId}";
+
+  /** The Constant DICTIONARY_WORDS. */
+  public static final String DICTIONARY_WORDS = "/dictionaries/{dictionaryId}/words";
+
+  /** The Constant POST_DICTIONARY_DELTA. */
+  public static final String POST_DICTIONARY_DELTA = "/dictionaries/{dictionaryId}/delta";
+
+  /** The Constant GET_DICTIONARY_ANAGRAMS. */
+  public static final String GET_DICTIONARY_ANAGRAMS = "/dictionaries/{dictionaryId}/anagrams";
+
+  /** The Constant GET_DICTIONARY_ANAGRAMS_STREAM. */
+  public static final String GET_DICTIONARY_ANAGRAMS_STREAM =
+      "/dictionaries/{dictionaryId}/anagrams/stream";
+
+  /** The Constant GET_DICTIONARY_ANAGRAMS_PARTITION. */
+  public static final String GET_DICTIONARY_ANAGRAMS_PARTITION =
+      "/dictionaries/{dictionaryId}/anagrams/partition";
+
+  /** The Constant POST_DICTIONARY_ANAGRAMS_BATCH. */
+  public static final String POST_DICTIONARY_ANAGRAMS_BATCH =
+      "/dictionaries/{dictionaryId}/anagrams/batch";
+
+  /** The Constant GET_DICTIONARY_LOOKUP. */
+  public static final String GET_DICTIONARY_LOOKUP = "/dictionaries/{dictionaryId}/lookup";
+
+  /** The Constant GET_DICTIONARY_SUBANAGRAMS. */
+  public static final String GET_DICTIONARY_SUBANAGRAMS =
+      "/dictionaries/{dictionaryId}/subanagrams";
+
+  /** The Constant POST_ANAGRAM_GROUPS. */
+  public static final String POST_ANAGRAM_GROUPS = "/anagrams/groups";
+
+  /** The Constant GET_CACHE_STATISTICS. */
+  public static final String GET_CACHE_STATISTICS = "/cache/statistics";
 }
@@ -0,0 +1,24 @@
+package com.racabe.anagrams.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The class DictionaryMismatchException, thrown when a node is asked for a part of a distributed
+ * search with another version of the dictionary than the one of the coordinator.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DictionaryMismatchException extends DictionaryException {
+
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Instantiates a new dictionary mismatch exception.
+   *
+   * @param message the message
+   */
+  public DictionaryMismatchException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,24 @@
+package com.racabe.anagrams.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The class DictionaryNotFoundException, thrown when a query references a dictionary id that has
+ * not been loaded.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class DictionaryNotFoundException extends DictionaryException {
+
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Instantiates a new dictionary not found exception.
+   *
+   * @param dictionaryId the id of the dictionary that was not found
+   */
+  public DictionaryNotFoundException(String dictionaryId) {
+    super("Dictionary " + dictionaryId + " is not loaded");
+  }
+}
@@ -0,0 +1,24 @@
+package com.racabe.anagrams.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The class InvalidBatchException, thrown when a batch of phrases has more phrases than the
+ * maximum allowed.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBatchException extends DictionaryException {
+
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Instantiates a new invalid batch exception.
+   *
+   * @param message the message
+   */
+  public InvalidBatchException(String message) {
+    super(message);
+  }
+}
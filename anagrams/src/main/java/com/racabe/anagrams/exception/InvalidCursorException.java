@@ -0,0 +1,24 @@
+package com.racabe.anagrams.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The class InvalidCursorException, thrown when a search is resumed from a cursor that is not valid
+ * or that belongs to another version of the dictionary.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends DictionaryException {
+
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Instantiates a new invalid cursor exception.
+   *
+   * @param message the message
+   */
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,24 @@
+package com.racabe.anagrams.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The class InvalidLettersException, thrown when the letters of a query of sub-anagrams are more
+ * than the maximum allowed, or have more blank tiles than the maximum allowed.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidLettersException extends DictionaryException {
+
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Instantiates a new invalid letters exception.
+   *
+   * @param message the message
+   */
+  public InvalidLettersException(String message) {
+    super(message);
+  }
+}
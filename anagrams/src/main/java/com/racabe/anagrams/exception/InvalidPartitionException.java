@@ -0,0 +1,24 @@
+package com.racabe.anagrams.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The class InvalidPartitionException, thrown when the range of the parts of a query asked by the
+ * coordinator of a distributed search is not a range of parts.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPartitionException extends DictionaryException {
+
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Instantiates a new invalid partition exception.
+   *
+   * @param message the message
+   */
+  public InvalidPartitionException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,28 @@
+package com.racabe.anagrams.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The class SearchRejectedException, thrown when a search can not wait for a thread because the
+ * queue of the searches is full. The client should try again later.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class SearchRejectedException extends DictionaryException {
+
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+
+  /** The message of a search rejected. */
+  public static final String MESSAGE =
+      "Sorry! The server is busy searching other anagrams. Please try again later!";
+
+  /**
+   * Instantiates a new search rejected exception.
+   *
+   * @param cause the cause
+   */
+  public SearchRejectedException(Throwable cause) {
+    super(MESSAGE, cause);
+  }
+}
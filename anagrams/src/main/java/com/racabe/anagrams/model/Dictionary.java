@@ -0,0 +1,254 @@
+package com.racabe.anagrams.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class Dictionary, an immutable snapshot of a parsed dictionary. A snapshot is completely
+ * built before being published, so it can be shared between request threads without locks and a
+ * reload never exposes a half-built index to a search in progress. The index of the sub-anagrams
+ * is built the first time it is used, as only some of the snapshots are queried for them.
+ *
+ * <p>The version tells apart the snapshots of a process, but two processes that load the same
+ * words give them different versions. The fingerprint, a hash of the words in the order of the
+ * index, is the same for the snapshots with the same words in any process, so the nodes of a
+ * distributed search can check that they split a query in the same way.
+ */
+public final class Dictionary {
+
+  /** The id of the dictionary. */
+  private final String id;
+
+  /** The version of the snapshot, different for every dictionary loaded. */
+  private final long version;
+
+  /** The words of the dictionary by word length, null for the lengths without words. */
+  private final WordBucket[] buckets;
+
+  /**
+   * The id of the first word of each length, and the number of words at the end. The words of a
+   * length have consecutive ids, in the order of the word table of their bucket.
+   */
+  private final int[] firstIds;
+
+  /** The number of words of the dictionary. */
+  private final int size;
+
+  /** The number of bytes of the hash kept by the fingerprint. */
+  private static final int FINGERPRINT_BYTES = 8;
+
+  /** The fingerprint of the words, or null if it has not been used yet. */
+  private volatile String fingerprint;
+
+  /** The index of the sub-anagrams, or null if it has not been used yet. */
+  private volatile SubAnagramIndex subAnagramIndex;
+
+  /**
+   * Instantiates a new dictionary. Use a {@link DictionaryBuilder} to create it.
+   *
+   * @param id the id of the dictionary
+   * @param version the version of the snapshot
+   * @param buckets the words of the dictionary by word length
+   */
+  Dictionary(String id, long version, WordBucket[] buckets) {
+    this.id = id;
+    this.version = version;
+    this.buckets = buckets;
+
+    this.firstIds = new int[buckets.length + 1];
+    for (int length = 0; length < buckets.length; length++) {
+      firstIds[length + 1] =
+          firstIds[length] + (buckets[length] == null ? 0 : buckets[length].wordCount());
+    }
+    this.size = firstIds[buckets.length];
+  }
+
+  /**
+   * Gets the id of the dictionary.
+   *
+   * @return the id
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Gets the version of the snapshot.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets the fingerprint of the words of the snapshot, calculating it if it is the first time. The
+   * words are hashed in the order of their ids, the order of their signatures into the buckets, so
+   * two snapshots with the same fingerprint have the same signatures at the same positions.
+   *
+   * @return the first bytes of the SHA-256 hash of the words, in hexadecimal
+   */
+  public String getFingerprint() {
+    String hash = fingerprint;
+    if (hash == null) {
+      MessageDigest digest;
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException ex) {
+        throw new IllegalStateException(ex);
+      }
+      for (WordBucket bucket : buckets) {
+        for (int wordPosition = 0; bucket != null && wordPosition < bucket.wordCount();
+            wordPosition++) {
+          digest.update(bucket.getWord(wordPosition).getBytes(StandardCharsets.UTF_8));
+          digest.update((byte) '\n');
+        }
+      }
+
+      StringBuilder text = new StringBuilder();
+      byte[] bytes = digest.digest();
+      for (int pos = 0; pos < FINGERPRINT_BYTES; pos++) {
+        text.append(String.format("%02x", bytes[pos]));
+      }
+      hash = text.toString();
+      fingerprint = hash;
+    }
+    return hash;
+  }
+
+  /**
+   * Gets the number of words of the dictionary.
+   *
+   * @return the number of words
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the candidates of a length.
+   *
+   * @param length the length of the words
+   * @return the bucket of the words, or null if there is no word of this length
+   */
+  public WordBucket getCandidatesByLength(int length) {
+    return length < buckets.length ? buckets[length] : null;
+  }
+
+  /**
+   * Gets the id of a word into this snapshot, a number from 0 to the number of words.
+   *
+   * @param length the length of the word
+   * @param wordPosition the position of the word into the word table of its bucket
+   * @return the id of the word
+   */
+  public int getWordId(int length, int wordPosition) {
+    return firstIds[length] + wordPosition;
+  }
+
+  /**
+   * Gets the id of a word into this snapshot, looking it up by its signature.
+   *
+   * @param word the word, normalized like the words of the dictionary
+   * @return the id of the word, or -1 if it is not into this snapshot
+   */
+  public int getWordId(String word) {
+    WordBucket bucket = this.getCandidatesByLength(word.length());
+    int position = bucket == null ? -1 : bucket.indexOf(LetterSignature.of(word));
+    if (position < 0) {
+      return -1;
+    }
+    for (int wordPosition = bucket.firstWord(position); wordPosition < bucket.endWord(position);
+        wordPosition++) {
+      if (bucket.getWord(wordPosition).equals(word)) {
+        return this.getWordId(word.length(), wordPosition);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets a word by its id into this snapshot.
+   *
+   * @param wordId the id of the word
+   * @return the word
+   */
+  public String getWord(int wordId) {
+    // The last length whose first id is not after the id, the lengths without words are skipped
+    int low = 0;
+    int high = buckets.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (firstIds[middle] <= wordId) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return buckets[low].getWord(wordId - firstIds[low]);
+  }
+
+  /**
+   * Gets the index of the sub-anagrams, the words that can be spelled with some letters, building
+   * it if it is the first time.
+   *
+   * @return the index of the sub-anagrams
+   */
+  public SubAnagramIndex getSubAnagramIndex() {
+    SubAnagramIndex index = subAnagramIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = subAnagramIndex;
+        if (index == null) {
+          index = new SubAnagramIndex(this);
+          subAnagramIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Gets the length of the longest word of the dictionary.
+   *
+   * @return the length of the longest word
+   */
+  public int getMaxWordLength() {
+    return buckets.length - 1;
+  }
+
+  /**
+   * Estimate the bytes of heap used by the index of the dictionary, including the words.
+   *
+   * @return the bytes used
+   */
+  public long memoryFootprint() {
+    long bytes = MemoryFootprint.array(buckets.length, MemoryFootprint.REFERENCE_BYTES);
+    for (WordBucket bucket : buckets) {
+      if (bucket != null) {
+        bytes += bucket.memoryFootprint();
+      }
+    }
+    SubAnagramIndex index = subAnagramIndex;
+    return index == null ? bytes : bytes + index.memoryFootprint();
+  }
+
+  /**
+   * Gets the bytes of the dictionary mapped into memory from a compiled file. They are not into the
+   * heap, and they are shared with the other processes that map the same file.
+   *
+   * @return the bytes mapped, 0 if the dictionary was parsed into the heap
+   */
+  public long mappedBytes() {
+    long bytes = 0;
+    for (WordBucket bucket : buckets) {
+      if (bucket != null) {
+        bytes += bucket.mappedBytes();
+      }
+    }
+    return bytes;
+  }
+}
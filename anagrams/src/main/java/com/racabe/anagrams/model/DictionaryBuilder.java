@@ -0,0 +1,320 @@
+package com.racabe.anagrams.model;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class DictionaryBuilder, where the words of a dictionary are collected before building the
+ * immutable snapshot. A builder is not thread safe, and it is meant to be used by the thread that
+ * parses the dictionary only.
+ */
+public final class DictionaryBuilder {
+
+  /** The logger, to warn about the words skipped. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(DictionaryBuilder.class);
+
+  /** The number of letters of a word skipped written into the warning. */
+  private static final int SKIPPED_WORD_LETTERS = 32;
+
+  /** The initial capacity for the words of a length. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** The signatures of the words collected, by word length. */
+  private long[][] signatures = new long[0][];
+
+  /** The words collected, by word length. */
+  private String[][] words = new String[0][];
+
+  /** The number of words collected, by word length. */
+  private int[] counts = new int[0];
+
+  /**
+   * Add a word to the dictionary. The word is normalized like the phrases searched: the letters are
+   * kept in lower case and the characters that are not letters are removed. A word without letters
+   * is ignored.
+   *
+   * @param word the word
+   * @return this builder
+   */
+  public DictionaryBuilder addWord(String word) {
+    String normalized = normalize(word);
+    long[] signature = signatureOf(normalized);
+    if (signature != null) {
+      this.addWord(normalized, signature);
+    }
+    return this;
+  }
+
+  /**
+   * Calculate the signature of a word already normalized. A word with a letter more than
+   * {@link LetterSignature#MAX_LETTER_COUNT} times does not fit into a signature, so it is skipped
+   * with a warning, like the words without letters are ignored, instead of failing the whole
+   * dictionary.
+   *
+   * @param word the word, only with lower case letters
+   * @return the signature of the word, or null if the word is skipped
+   */
+  static long[] signatureOf(String word) {
+    if (word.isEmpty()) {
+      return null;
+    }
+    long[] signature = new long[LetterSignature.LONGS];
+    for (int pos = 0; pos < word.length(); pos++) {
+      int letter = word.charAt(pos) - 'a';
+      if (!LetterSignature.canAddLetter(signature, 0, letter)) {
+        skipWord(word);
+        return null;
+      }
+      LetterSignature.addLetter(signature, 0, letter);
+    }
+    return signature;
+  }
+
+  /**
+   * Warn about a word skipped because it has a letter more than
+   * {@link LetterSignature#MAX_LETTER_COUNT} times.
+   *
+   * @param word the word, only with lower case letters
+   */
+  static void skipWord(String word) {
+    LOGGER.warn("Skipping the word {} of {} letters, a letter appears more than {} times",
+        word.length() > SKIPPED_WORD_LETTERS ? word.substring(0, SKIPPED_WORD_LETTERS) + "..."
+            : word, word.length(), LetterSignature.MAX_LETTER_COUNT);
+  }
+
+  /**
+   * Normalize a word like the words of a dictionary: the letters are kept in lower case and the
+   * characters that are not letters are removed.
+   *
+   * @param word the word
+   * @return the word normalized, empty if it has no letters
+   */
+  static String normalize(String word) {
+    char[] letters = new char[word.length()];
+    int length = 0;
+    for (int pos = 0; pos < word.length(); pos++) {
+      int letter = LetterSignature.letterIndex(word.charAt(pos));
+      if (letter >= 0) {
+        letters[length++] = (char) ('a' + letter);
+      }
+    }
+    return new String(letters, 0, length);
+  }
+
+  /**
+   * Add a word already normalized to the dictionary, with its signature calculated while it was
+   * read.
+   *
+   * @param word the word, only with lower case letters
+   * @param signature the signature of the word, copied by the builder
+   */
+  void addWord(String word, long[] signature) {
+    int length = word.length();
+    if (length >= counts.length) {
+      signatures = Arrays.copyOf(signatures, length + 1);
+      words = Arrays.copyOf(words, length + 1);
+      counts = Arrays.copyOf(counts, length + 1);
+    }
+    if (words[length] == null) {
+      signatures[length] = new long[INITIAL_CAPACITY * LetterSignature.LONGS];
+      words[length] = new String[INITIAL_CAPACITY];
+    } else if (counts[length] == words[length].length) {
+      signatures[length] = Arrays.copyOf(signatures[length], signatures[length].length * 2);
+      words[length] = Arrays.copyOf(words[length], counts[length] * 2);
+    }
+
+    System.arraycopy(signature, 0, signatures[length], counts[length] * LetterSignature.LONGS,
+        LetterSignature.LONGS);
+    words[length][counts[length]] = word;
+    counts[length]++;
+  }
+
+  /**
+   * Build the immutable snapshot with the words collected.
+   *
+   * @param id the id of the dictionary
+   * @param version the version of the snapshot
+   * @return the dictionary
+   */
+  public Dictionary build(String id, long version) {
+    WordBucket[] buckets = new WordBucket[counts.length];
+    for (int length = 0; length < counts.length; length++) {
+      if (counts[length] > 0) {
+        buckets[length] = buildBucket(signatures[length], words[length], counts[length]);
+      }
+    }
+    return new Dictionary(id, version, buckets);
+  }
+
+  /**
+   * Build the index of the words of one length, grouping the words by signature. The words with the
+   * same signature keep the order in which they were added, and a word repeated is kept only once.
+   *
+   * @param wordSignatures the signature of each word
+   * @param wordList the words
+   * @param count the number of words
+   * @return the bucket of the words
+   */
+  private static WordBucket buildBucket(long[] wordSignatures, String[] wordList, int count) {
+    // Sort the words by signature, keeping the order of the words with the same signature
+    int[] order = new int[count];
+    for (int pos = 0; pos < count; pos++) {
+      order[pos] = pos;
+    }
+    sort(wordSignatures, order, new int[count], 0, count);
+
+    // Walk the words sorted, starting a new group each time the signature changes
+    long[] bucketSignatures = new long[count * LetterSignature.LONGS];
+    int[] offsets = new int[count + 1];
+    String[] table = new String[count];
+    int unique = 0;
+    int size = 0;
+    for (int pos = 0; pos < count; pos++) {
+      int word = order[pos] * LetterSignature.LONGS;
+      if (unique == 0 || LetterSignature.compare(bucketSignatures,
+          (unique - 1) * LetterSignature.LONGS, wordSignatures, word) != 0) {
+        System.arraycopy(wordSignatures, word, bucketSignatures, unique * LetterSignature.LONGS,
+            LetterSignature.LONGS);
+        offsets[unique++] = size;
+      } else if (contains(table, offsets[unique - 1], size, wordList[order[pos]])) {
+        // The same word twice, for example "Dog" and "dog" once normalized
+        continue;
+      }
+      table[size++] = wordList[order[pos]];
+    }
+    offsets[unique] = size;
+
+    return new WordBucket(Arrays.copyOf(bucketSignatures, unique * LetterSignature.LONGS),
+        Arrays.copyOf(offsets, unique + 1), Arrays.copyOf(table, size));
+  }
+
+  /**
+   * Merge the index of the words of one length of a snapshot with the index of some words added,
+   * leaving out some words removed. Both indexes are sorted by signature, so they are walked once
+   * side by side, and the words of a signature in both of them keep the words of the snapshot
+   * first.
+   *
+   * @param base the bucket of the snapshot, or null if it has no word of this length
+   * @param added the bucket of the words added, or null if no word of this length is added
+   * @param removed the words removed from the snapshot, or null if none
+   * @return the bucket merged, or null if no word of this length is left
+   */
+  static WordBucket mergeBuckets(WordBucket base, WordBucket added, Set<String> removed) {
+    int baseSize = base == null ? 0 : base.size();
+    int addedSize = added == null ? 0 : added.size();
+    LongBuffer baseSignatures = base == null ? null : base.signatures();
+    LongBuffer addedSignatures = added == null ? null : added.signatures();
+
+    long[] bucketSignatures = new long[(baseSize + addedSize) * LetterSignature.LONGS];
+    int[] offsets = new int[baseSize + addedSize + 1];
+    String[] table = new String[(base == null ? 0 : base.wordCount())
+        + (added == null ? 0 : added.wordCount())];
+    long[] signature = new long[LetterSignature.LONGS];
+    int unique = 0;
+    int size = 0;
+    int basePos = 0;
+    int addedPos = 0;
+    while (basePos < baseSize || addedPos < addedSize) {
+      if (addedPos < addedSize) {
+        addedSignatures.position(addedPos * LetterSignature.LONGS);
+        addedSignatures.get(signature);
+      }
+      int comparison = basePos == baseSize ? 1 : addedPos == addedSize ? -1
+          : LetterSignature.compare(baseSignatures, basePos * LetterSignature.LONGS, signature, 0);
+
+      int first = size;
+      if (comparison <= 0) {
+        for (int word = base.firstWord(basePos); word < base.endWord(basePos); word++) {
+          String value = base.getWord(word);
+          if (removed == null || !removed.contains(value)) {
+            table[size++] = value;
+          }
+        }
+        if (comparison < 0) {
+          baseSignatures.position(basePos * LetterSignature.LONGS);
+          baseSignatures.get(signature);
+        }
+        basePos++;
+      }
+      if (comparison >= 0) {
+        for (int word = added.firstWord(addedPos); word < added.endWord(addedPos); word++) {
+          String value = added.getWord(word);
+          if (!contains(table, first, size, value)) {
+            table[size++] = value;
+          }
+        }
+        addedPos++;
+      }
+
+      // A signature whose words have been removed is left out
+      if (size > first) {
+        System.arraycopy(signature, 0, bucketSignatures, unique * LetterSignature.LONGS,
+            LetterSignature.LONGS);
+        offsets[unique++] = first;
+      }
+    }
+    offsets[unique] = size;
+
+    if (size == 0) {
+      return null;
+    }
+    return new WordBucket(Arrays.copyOf(bucketSignatures, unique * LetterSignature.LONGS),
+        Arrays.copyOf(offsets, unique + 1), Arrays.copyOf(table, size));
+  }
+
+  /**
+   * Method to know if a word is into a range of the word table. The words with the same signature
+   * are very few, so the range is walked.
+   *
+   * @param table the word table
+   * @param from the first position of the range, inclusive
+   * @param to the last position of the range, exclusive
+   * @param word the word
+   * @return true if the word is into the range
+   */
+  private static boolean contains(String[] table, int from, int to, String word) {
+    for (int pos = from; pos < to; pos++) {
+      if (table[pos].equals(word)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Stable merge sort of the positions of the words by signature.
+   *
+   * @param wordSignatures the signature of each word
+   * @param order the positions of the words to sort
+   * @param buffer a buffer as long as the positions
+   * @param from the first position to sort, inclusive
+   * @param to the last position to sort, exclusive
+   */
+  private static void sort(long[] wordSignatures, int[] order, int[] buffer, int from, int to) {
+    if (to - from < 2) {
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    sort(wordSignatures, order, buffer, from, middle);
+    sort(wordSignatures, order, buffer, middle, to);
+
+    int left = from;
+    int right = middle;
+    for (int pos = from; pos < to; pos++) {
+      if (right >= to || (left < middle && LetterSignature.compare(wordSignatures,
+          order[left] * LetterSignature.LONGS, wordSignatures,
+          order[right] * LetterSignature.LONGS) <= 0)) {
+        buffer[pos] = order[left++];
+      } else {
+        buffer[pos] = order[right++];
+      }
+    }
+    System.arraycopy(buffer, from, order, from, to - from);
+  }
+}
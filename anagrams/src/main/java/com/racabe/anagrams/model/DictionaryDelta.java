@@ -0,0 +1,173 @@
+package com.racabe.anagrams.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class DictionaryDelta, the words added to and removed from a dictionary, applied to a
+ * snapshot to publish the next one without parsing the whole dictionary again. Only the buckets of
+ * the lengths changed are rebuilt, merging the words of the old bucket, already sorted by
+ * signature, with the words added; the buckets of the other lengths are shared by both snapshots.
+ *
+ * <p>The words are normalized like the words of a dictionary. The words removed are removed from
+ * the snapshot before the words added are added, so a word in both lists is kept. A delta is not
+ * thread safe.
+ */
+public final class DictionaryDelta {
+
+  /** The initial capacity for the signatures of the words changed. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** The words added. */
+  private final DictionaryBuilder added = new DictionaryBuilder();
+
+  /** The words removed, by word length. */
+  private final Map<Integer, Set<String>> removed = new HashMap<Integer, Set<String>>();
+
+  /** The signatures of the words added and removed. */
+  private long[] changed = new long[INITIAL_CAPACITY * LetterSignature.LONGS];
+
+  /** The number of words added and removed. */
+  private int changedCount;
+
+  /**
+   * Add a word to the dictionary. A word without letters, or with a letter too many times, is
+   * ignored.
+   *
+   * @param word the word
+   * @return this delta
+   */
+  public DictionaryDelta addWord(String word) {
+    String normalized = DictionaryBuilder.normalize(word);
+    long[] signature = DictionaryBuilder.signatureOf(normalized);
+    if (signature != null) {
+      added.addWord(normalized, signature);
+      this.addChanged(signature);
+    }
+    return this;
+  }
+
+  /**
+   * Remove a word from the dictionary. A word without letters, with a letter too many times or
+   * that is not into the dictionary, is ignored.
+   *
+   * @param word the word
+   * @return this delta
+   */
+  public DictionaryDelta removeWord(String word) {
+    String normalized = DictionaryBuilder.normalize(word);
+    long[] signature = DictionaryBuilder.signatureOf(normalized);
+    if (signature != null) {
+      removed.computeIfAbsent(normalized.length(), length -> new HashSet<String>())
+          .add(normalized);
+      this.addChanged(signature);
+    }
+    return this;
+  }
+
+  /**
+   * Read the changes of a delta file, one word per line. A word starting with "-" is removed, any
+   * other word is added, with an optional "+" before it. The empty lines and the lines starting
+   * with "#" are skipped.
+   *
+   * @param stream the stream, not closed by the delta
+   * @return this delta
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public DictionaryDelta read(InputStream stream) throws IOException {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty() || line.charAt(0) == '#') {
+        continue;
+      }
+      if (line.charAt(0) == '-') {
+        this.removeWord(line.substring(1));
+      } else {
+        this.addWord(line.charAt(0) == '+' ? line.substring(1) : line);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Method to know if the delta has no change.
+   *
+   * @return true if no word is added nor removed
+   */
+  public boolean isEmpty() {
+    return changedCount == 0;
+  }
+
+  /**
+   * Method to know if the anagrams of some letters can change with this delta, because the letters
+   * of a word added or removed are contained into them.
+   *
+   * @param letters the array with the signature of the letters
+   * @param offset the position of the signature into the array
+   * @return true if the anagrams can change
+   */
+  public boolean changes(long[] letters, int offset) {
+    for (int pos = 0; pos < changedCount; pos++) {
+      if (LetterSignature.contains(letters, offset, changed, pos * LetterSignature.LONGS)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Apply the delta to a snapshot. The snapshot is not modified, and the new one shares with it the
+   * buckets of the lengths without changes.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param version the version of the new snapshot
+   * @return the new snapshot
+   */
+  public Dictionary applyTo(Dictionary dictionary, long version) {
+    Dictionary addedWords = added.build(dictionary.getId(), version);
+    int lengths = Math.max(dictionary.getMaxWordLength(), addedWords.getMaxWordLength()) + 1;
+
+    WordBucket[] buckets = new WordBucket[lengths];
+    int maxLength = 0;
+    for (int length = 0; length < lengths; length++) {
+      WordBucket base = dictionary.getCandidatesByLength(length);
+      WordBucket bucket = addedWords.getCandidatesByLength(length);
+      Set<String> words = removed.get(length);
+      buckets[length] = bucket == null && words == null ? base
+          : DictionaryBuilder.mergeBuckets(base, bucket, words);
+      if (buckets[length] != null) {
+        maxLength = length;
+      }
+    }
+
+    // The longest words can have been removed
+    return new Dictionary(dictionary.getId(), version, Arrays.copyOf(buckets, maxLength + 1));
+  }
+
+  /**
+   * Add the signature of a word added or removed.
+   *
+   * @param signature the signature of the word
+   */
+  private void addChanged(long[] signature) {
+    if ((changedCount + 1) * LetterSignature.LONGS > changed.length) {
+      changed = Arrays.copyOf(changed, changed.length * 2);
+    }
+    System.arraycopy(signature, 0, changed, changedCount * LetterSignature.LONGS,
+        LetterSignature.LONGS);
+    changedCount++;
+  }
+}
@@ -0,0 +1,271 @@
+package com.racabe.anagrams.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.racabe.anagrams.exception.DictionaryException;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class DictionaryFile, where a dictionary is compiled into a binary file with its index, and
+ * where a compiled dictionary is mapped into memory. A dictionary mapped is ready to search as soon
+ * as the header has been read, and its pages are shared by all the processes that map the same
+ * file, instead of each one keeping a copy into its heap.
+ *
+ * <p>The file is little endian. It starts with a header (magic number, version of the format,
+ * number of lengths and number of words), then the number of signatures and words of each length,
+ * and then the sections of each length: the signatures, the positions of the first word of each
+ * signature and the letters of the words, one byte per letter. Each section starts at a multiple of
+ * 8 bytes, so the signatures can be read as longs.
+ */
+public final class DictionaryFile {
+
+  /** The magic number at the start of a compiled dictionary, "ANAG". */
+  static final int MAGIC = 0x414E4147;
+
+  /** The version of the format of the file. */
+  static final int FORMAT_VERSION = 1;
+
+  /** The bytes of the header. */
+  private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+  /** The bytes of the counts of each length. */
+  private static final int LENGTH_HEADER_BYTES = 2 * Integer.BYTES;
+
+  /** The byte order of the file. */
+  private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  // Private constructor to prevent instantiation
+  private DictionaryFile() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Method to know if a file is a compiled dictionary, looking at its magic number.
+   *
+   * @param path the path of the file
+   * @return true if the file is a compiled dictionary
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public static boolean isCompiled(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ORDER);
+      while (magic.hasRemaining() && channel.read(magic) >= 0) {
+        // Read until the magic number is complete or the file ends
+      }
+      return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+    }
+  }
+
+  /**
+   * Compile a dictionary into a file. The file is written apart and then moved over the path, so
+   * a process that has mapped the previous file keeps reading it without errors.
+   *
+   * @param dictionary the dictionary
+   * @param path the path of the file
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public static void write(Dictionary dictionary, Path path) throws IOException {
+    int lengths = dictionary.getMaxWordLength() + 1;
+
+    // Calculate the size of the file
+    long size = align(HEADER_BYTES + (long) lengths * LENGTH_HEADER_BYTES);
+    for (int length = 0; length < lengths; length++) {
+      WordBucket bucket = dictionary.getCandidatesByLength(length);
+      if (bucket != null) {
+        size += sectionsBytes(bucket.size(), bucket.wordCount() * length);
+      }
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new DictionaryException("Sorry! The dictionary " + dictionary.getId()
+          + " is too big to be compiled into a single file");
+    }
+
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      file.order(ORDER);
+
+      file.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(lengths).putInt(dictionary.size());
+      for (int length = 0; length < lengths; length++) {
+        WordBucket bucket = dictionary.getCandidatesByLength(length);
+        file.putInt(bucket == null ? 0 : bucket.size())
+            .putInt(bucket == null ? 0 : bucket.wordCount());
+      }
+      file.position((int) align(file.position()));
+
+      for (int length = 0; length < lengths; length++) {
+        WordBucket bucket = dictionary.getCandidatesByLength(length);
+        if (bucket != null) {
+          writeBucket(bucket, file);
+        }
+      }
+      file.force();
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Map a compiled dictionary into memory.
+   *
+   * @param path the path of the file
+   * @param id the id of the dictionary
+   * @param version the version of the snapshot
+   * @return the dictionary
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public static Dictionary map(Path path, String id, long version) throws IOException {
+    MappedByteBuffer file;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw invalid(path);
+      }
+      // The mapping stays valid after the channel is closed
+      file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    file.order(ORDER);
+
+    try {
+      if (file.getInt() != MAGIC || file.getInt() != FORMAT_VERSION) {
+        throw invalid(path);
+      }
+      int lengths = file.getInt();
+      int words = file.getInt();
+
+      int[] counts = new int[lengths * 2];
+      for (int length = 0; length < lengths; length++) {
+        counts[length * 2] = file.getInt();
+        counts[length * 2 + 1] = file.getInt();
+      }
+      int position = (int) align(file.position());
+
+      WordBucket[] buckets = new WordBucket[lengths];
+      for (int length = 0; length < lengths; length++) {
+        int signatures = counts[length * 2];
+        int letters = counts[length * 2 + 1] * length;
+        if (letters == 0) {
+          continue;
+        }
+
+        LongBuffer bucketSignatures =
+            slice(file, position, signatures * LetterSignature.LONGS * Long.BYTES).asLongBuffer();
+        position += align(signatures * LetterSignature.LONGS * Long.BYTES);
+        IntBuffer offsets = slice(file, position, (signatures + 1) * Integer.BYTES).asIntBuffer();
+        position += align((signatures + 1) * Integer.BYTES);
+        ByteBuffer wordLetters = slice(file, position, letters);
+        position += align(letters);
+
+        buckets[length] = new WordBucket(bucketSignatures, offsets, wordLetters, length);
+      }
+
+      Dictionary dictionary = new Dictionary(id, version, buckets);
+      if (dictionary.size() != words) {
+        throw invalid(path);
+      }
+      return dictionary;
+    } catch (IndexOutOfBoundsException | IllegalArgumentException
+        | BufferUnderflowException ex) {
+      throw new DictionaryException("Sorry! The compiled dictionary " + path + " is damaged", ex);
+    }
+  }
+
+  /**
+   * Write the sections of a bucket.
+   *
+   * @param bucket the bucket
+   * @param file the buffer of the file, at the position of the sections
+   */
+  private static void writeBucket(WordBucket bucket, ByteBuffer file) {
+    LongBuffer signatures = bucket.signatures();
+    for (int pos = 0; pos < signatures.capacity(); pos++) {
+      file.putLong(signatures.get(pos));
+    }
+    pad(file);
+
+    IntBuffer offsets = bucket.offsets();
+    for (int pos = 0; pos < offsets.capacity(); pos++) {
+      file.putInt(offsets.get(pos));
+    }
+    pad(file);
+
+    for (int word = 0; word < bucket.wordCount(); word++) {
+      String value = bucket.getWord(word);
+      for (int pos = 0; pos < value.length(); pos++) {
+        file.put((byte) value.charAt(pos));
+      }
+    }
+    pad(file);
+  }
+
+  /**
+   * Calculate the bytes of the sections of a bucket.
+   *
+   * @param signatures the number of signatures
+   * @param letters the number of letters of all the words
+   * @return the bytes of the sections
+   */
+  private static long sectionsBytes(int signatures, long letters) {
+    return align((long) signatures * LetterSignature.LONGS * Long.BYTES)
+        + align((long) (signatures + 1) * Integer.BYTES) + align(letters);
+  }
+
+  /**
+   * Get a view of a region of the file.
+   *
+   * @param file the buffer of the file
+   * @param position the position of the region
+   * @param bytes the bytes of the region
+   * @return the view, with the byte order of the file
+   */
+  private static ByteBuffer slice(ByteBuffer file, int position, int bytes) {
+    ByteBuffer region = file.duplicate();
+    region.position(position);
+    region.limit(position + bytes);
+    return region.slice().order(ORDER);
+  }
+
+  /**
+   * Fill with zeros up to the next multiple of 8 bytes.
+   *
+   * @param file the buffer of the file
+   */
+  private static void pad(ByteBuffer file) {
+    while (file.position() % Long.BYTES != 0) {
+      file.put((byte) 0);
+    }
+  }
+
+  /**
+   * Align a position to 8 bytes.
+   *
+   * @param bytes the position
+   * @return the position aligned
+   */
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  /**
+   * Create the exception of a file that is not a compiled dictionary.
+   *
+   * @param path the path of the file
+   * @return the exception
+   */
+  private static DictionaryException invalid(Path path) {
+    return new DictionaryException(
+        "Sorry! The file " + path + " is not a compiled dictionary of this version");
+  }
+}
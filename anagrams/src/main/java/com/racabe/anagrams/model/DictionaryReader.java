@@ -0,0 +1,164 @@
+package com.racabe.anagrams.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class DictionaryReader, where the words of a dictionary file are read into a
+ * {@link DictionaryBuilder}. The bytes are read in buffers of a fixed size and split into words by
+ * hand, so the memory used to read a dictionary does not depend on its size, and each byte is
+ * visited only once: the word is normalized and its signature is calculated while it is split.
+ *
+ * <p>The words are separated by white space, and they are normalized like the phrases searched:
+ * the letters from A to Z are kept in lower case, and any other character, including the bytes of
+ * the characters that are not ASCII, is removed. A word with a letter more than
+ * {@link LetterSignature#MAX_LETTER_COUNT} times is skipped with a warning. A reader is not thread
+ * safe.
+ */
+public final class DictionaryReader {
+
+  /** The size of the buffers used to read the dictionary. */
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  /** The maximum size of a region of a file mapped into memory at the same time. */
+  private static final long MAPPED_REGION_SIZE = 64L * 1024 * 1024;
+
+  /** The builder where the words are added. */
+  private final DictionaryBuilder builder;
+
+  /** The buffer of the bytes read. */
+  private final byte[] buffer;
+
+  /** The letters of the word being read. */
+  private char[] letters = new char[32];
+
+  /** The number of letters of the word being read. */
+  private int length;
+
+  /** The signature of the word being read. */
+  private final long[] signature = new long[LetterSignature.LONGS];
+
+  /** Whether a letter of the word being read appears too many times to fit into its signature. */
+  private boolean tooManyLetters;
+
+  /**
+   * Instantiates a new dictionary reader.
+   *
+   * @param builder the builder where the words are added
+   */
+  public DictionaryReader(DictionaryBuilder builder) {
+    this(builder, BUFFER_SIZE);
+  }
+
+  /**
+   * Instantiates a new dictionary reader.
+   *
+   * @param builder the builder where the words are added
+   * @param bufferSize the size of the buffers used to read the dictionary
+   */
+  DictionaryReader(DictionaryBuilder builder, int bufferSize) {
+    this.builder = builder;
+    this.buffer = new byte[bufferSize];
+  }
+
+  /**
+   * Read the words of a stream, like the one of a file uploaded.
+   *
+   * @param stream the stream, not closed by the reader
+   * @return the builder where the words were added
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public DictionaryBuilder read(InputStream stream) throws IOException {
+    int read;
+    while ((read = stream.read(buffer)) >= 0) {
+      this.split(read);
+    }
+    this.endWord();
+    return builder;
+  }
+
+  /**
+   * Read the words of a file in the local storage, mapping it into memory by regions, so the bytes
+   * are read from the page cache without copying them through the buffers of a stream.
+   *
+   * @param path the path of the file
+   * @return the builder where the words were added
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public DictionaryBuilder read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+            Math.min(MAPPED_REGION_SIZE, size - position));
+        while (region.hasRemaining()) {
+          int read = Math.min(buffer.length, region.remaining());
+          region.get(buffer, 0, read);
+          this.split(read);
+        }
+      }
+    }
+    this.endWord();
+    return builder;
+  }
+
+  /**
+   * Split the bytes of the buffer into words. A word can continue into the next buffer.
+   *
+   * @param read the number of bytes of the buffer
+   */
+  private void split(int read) {
+    for (int pos = 0; pos < read; pos++) {
+      byte character = buffer[pos];
+      if (character >= 'a' && character <= 'z') {
+        this.addLetter(character - 'a');
+      } else if (character >= 'A' && character <= 'Z') {
+        this.addLetter(character - 'A');
+      } else if (character >= 0 && character <= ' ') {
+        // White space and control characters end the word
+        this.endWord();
+      }
+    }
+  }
+
+  /**
+   * Add a letter to the word being read.
+   *
+   * @param letter the position of the letter into the alphabet
+   */
+  private void addLetter(int letter) {
+    if (length == letters.length) {
+      letters = Arrays.copyOf(letters, length * 2);
+    }
+    letters[length++] = (char) ('a' + letter);
+    if (tooManyLetters || !LetterSignature.canAddLetter(signature, 0, letter)) {
+      tooManyLetters = true;
+    } else {
+      LetterSignature.addLetter(signature, 0, letter);
+    }
+  }
+
+  /**
+   * Add the word being read to the builder, if it has any letter, and start a new word. A word with
+   * a letter too many times is skipped with a warning.
+   */
+  private void endWord() {
+    if (length > 0) {
+      if (tooManyLetters) {
+        DictionaryBuilder.skipWord(new String(letters, 0, length));
+      } else {
+        builder.addWord(new String(letters, 0, length), signature);
+      }
+      length = 0;
+      tooManyLetters = false;
+      Arrays.fill(signature, 0L);
+    }
+  }
+}
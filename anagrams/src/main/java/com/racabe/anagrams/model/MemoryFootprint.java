@@ -0,0 +1,53 @@
+package com.racabe.anagrams.model;
+
+/**
+ * The class MemoryFootprint, with the sizes used to estimate the heap used by the indexes, for a
+ * 64-bit JVM with compressed references.
+ */
+final class MemoryFootprint {
+
+  /** The bytes of a reference. */
+  static final int REFERENCE_BYTES = 4;
+
+  /** The bytes of the header of an array. */
+  private static final int ARRAY_HEADER_BYTES = 16;
+
+  /** The bytes of a String object without its characters. */
+  private static final int STRING_BYTES = 24;
+
+  // Private constructor to prevent instantiation
+  private MemoryFootprint() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Estimate the bytes used by an array.
+   *
+   * @param length the length of the array
+   * @param elementBytes the bytes of each element
+   * @return the bytes used, aligned to 8 bytes
+   */
+  static long array(int length, int elementBytes) {
+    return align(ARRAY_HEADER_BYTES + (long) length * elementBytes);
+  }
+
+  /**
+   * Estimate the bytes used by a String and its characters.
+   *
+   * @param value the string
+   * @return the bytes used
+   */
+  static long string(String value) {
+    return STRING_BYTES + array(value.length(), Character.BYTES);
+  }
+
+  /**
+   * Align a size to 8 bytes.
+   *
+   * @param bytes the size
+   * @return the size aligned
+   */
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+}
@@ -0,0 +1,230 @@
+package com.racabe.anagrams.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class SubAnagramIndex, a trie of the signatures of a dictionary to find the words that can
+ * be spelled with some letters, without using all of them. Each signature is a path of the trie
+ * with its letters in alphabetical order, so "listen", "silent" and "enlist" are the path
+ * e-i-l-n-s-t, and the node at the end of the path has the position of the signature into the
+ * bucket of its length, the depth of the node.
+ *
+ * <p>A query walks the trie subtracting the letter of each node from the letters available, and
+ * it only goes down the branches whose letter is still available, or when a blank tile can take
+ * its place. The letters of a path are sorted, so each signature is reached only once, and a blank
+ * is only used when the letter is not available. The nodes are kept in primitive arrays, each one
+ * with its first child and its next sibling, the siblings sorted by letter.
+ *
+ * <p>The words are found by length, from the longest ones to the shortest ones, walking the trie
+ * down to the depth of each length, so a query with a maximum number of words stops as soon as
+ * it has enough of the longest ones instead of walking every branch reachable.
+ */
+public final class SubAnagramIndex {
+
+  /** The initial capacity of the nodes. */
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** The snapshot of the dictionary indexed. */
+  private final Dictionary dictionary;
+
+  /** The letter of each node, the position into the alphabet. */
+  private byte[] letters = new byte[INITIAL_CAPACITY];
+
+  /** The first child of each node, or -1. */
+  private int[] firstChild = new int[INITIAL_CAPACITY];
+
+  /** The next sibling of each node, or -1. */
+  private int[] nextSibling = new int[INITIAL_CAPACITY];
+
+  /** The position of the signature ending at each node into its bucket, or -1. */
+  private int[] signaturePosition = new int[INITIAL_CAPACITY];
+
+  /** The number of nodes, including the root. */
+  private int size;
+
+  /**
+   * Instantiates a new index of the signatures of a dictionary.
+   *
+   * @param dictionary the snapshot of the dictionary
+   */
+  SubAnagramIndex(Dictionary dictionary) {
+    this.dictionary = dictionary;
+    int root = this.addNode(-1);
+
+    for (int length = 1; length <= dictionary.getMaxWordLength(); length++) {
+      WordBucket bucket = dictionary.getCandidatesByLength(length);
+      for (int position = 0; bucket != null && position < bucket.size(); position++) {
+        // The letters of any word of the signature, sorted
+        char[] key = bucket.getWord(bucket.firstWord(position)).toCharArray();
+        Arrays.sort(key);
+
+        int node = root;
+        for (char letter : key) {
+          node = this.child(node, letter - 'a');
+        }
+        signaturePosition[node] = position;
+      }
+    }
+
+    letters = Arrays.copyOf(letters, size);
+    firstChild = Arrays.copyOf(firstChild, size);
+    nextSibling = Arrays.copyOf(nextSibling, size);
+    signaturePosition = Arrays.copyOf(signaturePosition, size);
+  }
+
+  /**
+   * Find the words that can be spelled with some letters, using each letter at most as many times
+   * as it appears, and using the blank tiles in place of any letter.
+   *
+   * @param available the array with the signature of the letters available
+   * @param offset the position of the signature into the array
+   * @param blanks the number of blank tiles
+   * @param minWordLength the minimum length of the words
+   * @return the words, from the longest ones to the shortest ones and in alphabetical order
+   */
+  public List<String> find(long[] available, int offset, int blanks, int minWordLength) {
+    return this.find(available, offset, blanks, minWordLength, 0);
+  }
+
+  /**
+   * Find the longest words that can be spelled with some letters, using each letter at most as
+   * many times as it appears, and using the blank tiles in place of any letter.
+   *
+   * @param available the array with the signature of the letters available
+   * @param offset the position of the signature into the array
+   * @param blanks the number of blank tiles
+   * @param minWordLength the minimum length of the words
+   * @param maxResults the maximum number of words, 0 for no limit
+   * @return the words, from the longest ones to the shortest ones and in alphabetical order
+   */
+  public List<String> find(long[] available, int offset, int blanks, int minWordLength,
+      int maxResults) {
+    int[] counts = new int[LetterSignature.LETTERS];
+    int total = blanks;
+    for (int letter = 0; letter < counts.length; letter++) {
+      counts[letter] = LetterSignature.count(available, offset, letter);
+      total += counts[letter];
+    }
+
+    List<String> words = new ArrayList<String>();
+    int shortest = Math.max(1, minWordLength);
+    for (int length = Math.min(total, dictionary.getMaxWordLength()); length >= shortest
+        && (maxResults <= 0 || words.size() < maxResults); length--) {
+      int first = words.size();
+      this.walk(0, 0, length, counts, total, blanks, words);
+      Collections.sort(words.subList(first, words.size()));
+    }
+    return maxResults > 0 && words.size() > maxResults
+        ? new ArrayList<String>(words.subList(0, maxResults)) : words;
+  }
+
+  /**
+   * Gets the number of nodes of the trie.
+   *
+   * @return the number of nodes
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Estimate the bytes of heap used by the index.
+   *
+   * @return the bytes used
+   */
+  public long memoryFootprint() {
+    return MemoryFootprint.array(size, Byte.BYTES)
+        + 3 * MemoryFootprint.array(size, Integer.BYTES);
+  }
+
+  /**
+   * Walk the branches of a node that can be spelled with the letters left, down to the depth of
+   * the words of a length.
+   *
+   * @param node the node
+   * @param depth the depth of the node, the length of its path
+   * @param length the length of the words, the depth where the walk stops
+   * @param counts the times each letter is left, restored before returning
+   * @param left the number of letters and blank tiles left
+   * @param blanks the number of blank tiles left
+   * @param words the list where the words found are added
+   */
+  private void walk(int node, int depth, int length, int[] counts, int left, int blanks,
+      List<String> words) {
+    if (depth == length) {
+      if (signaturePosition[node] >= 0) {
+        Collections.addAll(words,
+            dictionary.getCandidatesByLength(depth).getWords(signaturePosition[node]));
+      }
+      return;
+    }
+    if (length - depth > left) {
+      return;
+    }
+
+    for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+      int letter = letters[child];
+      if (counts[letter] > 0) {
+        counts[letter]--;
+        this.walk(child, depth + 1, length, counts, left - 1, blanks, words);
+        counts[letter]++;
+      } else if (blanks > 0) {
+        this.walk(child, depth + 1, length, counts, left - 1, blanks - 1, words);
+      }
+    }
+  }
+
+  /**
+   * Gets the child of a node with a letter, adding it if there is none, so the siblings stay
+   * sorted by letter.
+   *
+   * @param node the node
+   * @param letter the position of the letter into the alphabet
+   * @return the child
+   */
+  private int child(int node, int letter) {
+    int previous = -1;
+    int child = firstChild[node];
+    while (child >= 0 && letters[child] < letter) {
+      previous = child;
+      child = nextSibling[child];
+    }
+    if (child >= 0 && letters[child] == letter) {
+      return child;
+    }
+
+    int added = this.addNode(letter);
+    nextSibling[added] = child;
+    if (previous < 0) {
+      firstChild[node] = added;
+    } else {
+      nextSibling[previous] = added;
+    }
+    return added;
+  }
+
+  /**
+   * Add a node without children.
+   *
+   * @param letter the position of the letter into the alphabet, -1 for the root
+   * @return the node added
+   */
+  private int addNode(int letter) {
+    if (size == letters.length) {
+      letters = Arrays.copyOf(letters, size * 2);
+      firstChild = Arrays.copyOf(firstChild, size * 2);
+      nextSibling = Arrays.copyOf(nextSibling, size * 2);
+      signaturePosition = Arrays.copyOf(signaturePosition, size * 2);
+    }
+    letters[size] = (byte) letter;
+    firstChild[size] = -1;
+    nextSibling[size] = -1;
+    signaturePosition[size] = -1;
+    return size++;
+  }
+}
@@ -0,0 +1,276 @@
+package com.racabe.anagrams.model;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class WordBucket, the immutable index of the words of one length. The signatures of the words
+ * are kept sorted and without duplicates in a primitive buffer, {@link LetterSignature#LONGS} longs
+ * per signature, and the words sharing a signature are stored consecutively in a word table, so the
+ * words of the signature at position i are the ones between offsets[i] (inclusive) and
+ * offsets[i + 1] (exclusive).
+ *
+ * <p>The buffers wrap the arrays of a dictionary parsed into the heap, or they are views of a
+ * compiled dictionary mapped into memory (see {@link DictionaryFile}). In the second case the word
+ * table is not a table of strings but the letters of all the words one after the other. All the
+ * words of a bucket have the same number of letters, so the word at position i starts at the letter
+ * i * length, and it is decoded only when an anagram uses it.
+ */
+public final class WordBucket {
+
+  /** The signatures of the words, sorted and without duplicates. */
+  private final LongBuffer signatures;
+
+  /** The position in the word table of the first word of each signature. */
+  private final IntBuffer offsets;
+
+  /** The word table, with the words grouped by signature, or null if the bucket is mapped. */
+  private final String[] words;
+
+  /** The letters of the words one after the other, if the bucket is mapped. */
+  private final ByteBuffer wordLetters;
+
+  /** The number of letters of each word. */
+  private final int length;
+
+  /** The number of different signatures. */
+  private final int size;
+
+  /** The number of words. */
+  private final int wordCount;
+
+  /**
+   * Instantiates a new word bucket with the arrays of a dictionary parsed.
+   *
+   * @param signatures the signatures of the words, sorted and without duplicates
+   * @param offsets the position in the word table of the first word of each signature, with one
+   *        more element marking the end of the table
+   * @param words the word table, with the words grouped by signature
+   */
+  WordBucket(long[] signatures, int[] offsets, String[] words) {
+    this.signatures = LongBuffer.wrap(signatures);
+    this.offsets = IntBuffer.wrap(offsets);
+    this.words = words;
+    this.wordLetters = null;
+    this.length = words.length == 0 ? 0 : words[0].length();
+    this.size = offsets.length - 1;
+    this.wordCount = words.length;
+  }
+
+  /**
+   * Instantiates a new word bucket with the buffers of a dictionary mapped into memory.
+   *
+   * @param signatures the signatures of the words, sorted and without duplicates
+   * @param offsets the position in the word table of the first word of each signature, with one
+   *        more element marking the end of the table
+   * @param wordLetters the letters of the words one after the other, one byte per letter
+   * @param length the number of letters of each word
+   */
+  WordBucket(LongBuffer signatures, IntBuffer offsets, ByteBuffer wordLetters, int length) {
+    this.signatures = signatures;
+    this.offsets = offsets;
+    this.words = null;
+    this.wordLetters = wordLetters;
+    this.length = length;
+    this.size = offsets.capacity() - 1;
+    this.wordCount = wordLetters.capacity() / length;
+  }
+
+  /**
+   * Gets the number of different signatures of the bucket.
+   *
+   * @return the number of signatures
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the number of words of the bucket.
+   *
+   * @return the number of words
+   */
+  public int wordCount() {
+    return wordCount;
+  }
+
+  /**
+   * Method to know if the letters of the signature at a position are contained into some letters.
+   *
+   * @param position the position of the signature
+   * @param letters the array with the signature of the letters available
+   * @param offset the position of the signature into the array
+   * @return true if the letters of the signature are contained
+   */
+  public boolean isContainedIn(int position, long[] letters, int offset) {
+    return LetterSignature.contains(letters, offset, signatures, position * LetterSignature.LONGS);
+  }
+
+  /**
+   * Gets the positions of the signatures whose letters are contained into some letters, to search
+   * only the words that can be part of an anagram of them.
+   *
+   * @param letters the array with the signature of the letters available
+   * @param offset the position of the signature into the array
+   * @return the positions of the signatures contained, in increasing order
+   */
+  public int[] positionsContainedIn(long[] letters, int offset) {
+    int[] positions = new int[size];
+    int count = 0;
+    for (int pos = 0; pos < size; pos++) {
+      if (this.isContainedIn(pos, letters, offset)) {
+        positions[count++] = pos;
+      }
+    }
+    return Arrays.copyOf(positions, count);
+  }
+
+  /**
+   * Subtract the letters of the signature at a position from some letters that contain them.
+   *
+   * @param position the position of the signature
+   * @param letters the array with the signature of the letters available
+   * @param offset the position of the signature into the array
+   * @param remaining the array to store the letters remaining
+   * @param remainingOffset the position of the signature into the remaining array
+   */
+  public void subtractFrom(int position, long[] letters, int offset, long[] remaining,
+      int remainingOffset) {
+    LetterSignature.subtract(letters, offset, signatures, position * LetterSignature.LONGS,
+        remaining, remainingOffset);
+  }
+
+  /**
+   * Gets the words with the signature at a position.
+   *
+   * @param position the position of the signature
+   * @return a copy of the words with this signature
+   */
+  public String[] getWords(int position) {
+    String[] group = new String[this.endWord(position) - this.firstWord(position)];
+    for (int pos = 0; pos < group.length; pos++) {
+      group[pos] = this.getWord(this.firstWord(position) + pos);
+    }
+    return group;
+  }
+
+  /**
+   * Gets the position into the word table of the first word with the signature at a position.
+   *
+   * @param position the position of the signature
+   * @return the position of the first word
+   */
+  public int firstWord(int position) {
+    return offsets.get(position);
+  }
+
+  /**
+   * Gets the position into the word table after the last word with the signature at a position.
+   *
+   * @param position the position of the signature
+   * @return the position after the last word
+   */
+  public int endWord(int position) {
+    return offsets.get(position + 1);
+  }
+
+  /**
+   * Gets a word of the word table.
+   *
+   * @param wordPosition the position of the word into the word table
+   * @return the word
+   */
+  public String getWord(int wordPosition) {
+    if (words != null) {
+      return words[wordPosition];
+    }
+
+    int start = wordPosition * length;
+    char[] letters = new char[length];
+    for (int pos = 0; pos < length; pos++) {
+      letters[pos] = (char) wordLetters.get(start + pos);
+    }
+    return new String(letters);
+  }
+
+  /**
+   * Find the position of a signature.
+   *
+   * @param signature the signature
+   * @return the position of the signature, or a negative number if there is no word with it
+   */
+  public int indexOf(long[] signature) {
+    int low = 0;
+    int high = size() - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = LetterSignature.compare(signatures, middle * LetterSignature.LONGS,
+          signature, 0);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Gets the signatures of the bucket, to write them into a compiled dictionary.
+   *
+   * @return a read only view of the signatures
+   */
+  LongBuffer signatures() {
+    return signatures.asReadOnlyBuffer();
+  }
+
+  /**
+   * Gets the position in the word table of the first word of each signature, to write them into a
+   * compiled dictionary.
+   *
+   * @return a read only view of the positions
+   */
+  IntBuffer offsets() {
+    return offsets.asReadOnlyBuffer();
+  }
+
+  /**
+   * Estimate the bytes of heap used by the bucket, including the words, for a 64-bit JVM with
+   * compressed references. The buffers of a mapped bucket are not into the heap.
+   *
+   * @return the bytes used
+   */
+  public long memoryFootprint() {
+    if (words == null) {
+      return 0;
+    }
+
+    long bytes = MemoryFootprint.array(signatures.capacity(), Long.BYTES)
+        + MemoryFootprint.array(offsets.capacity(), Integer.BYTES)
+        + MemoryFootprint.array(words.length, MemoryFootprint.REFERENCE_BYTES);
+    for (String word : words) {
+      bytes += MemoryFootprint.string(word);
+    }
+    return bytes;
+  }
+
+  /**
+   * Gets the bytes of the bucket mapped into memory, shared with the other processes that map the
+   * same file.
+   *
+   * @return the bytes mapped, 0 if the bucket is into the heap
+   */
+  public long mappedBytes() {
+    if (words != null) {
+      return 0;
+    }
+    return (long) signatures.capacity() * Long.BYTES
+        + (long) offsets.capacity() * Integer.BYTES + wordLetters.capacity();
+  }
+}
@@ -0,0 +1,134 @@
+package com.racabe.anagrams.search;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.racabe.anagrams.model.Dictionary;
+
+/**
+ * The class AnagramCacheKey, the key of a page of anagrams into the cache of results. Two phrases
+ * with the same letters have the same anagrams, so the key has the signature of the letters instead
+ * of the phrase, and "Computer" and "mute proc" share the same entry. The key has the version of
+ * the snapshot too, so the entries of a dictionary are never used once it has been reloaded.
+ */
+public final class AnagramCacheKey {
+
+  /** The version of the snapshot of the dictionary. */
+  private final long version;
+
+  /** The signature of the letters. */
+  private final long[] signature;
+
+  /** The minimum length of a word into an anagram. */
+  private final int minWordLength;
+
+  /** The maximum number of words of an anagram, 0 for no limit. */
+  private final int maxWords;
+
+  /** The maximum number of anagrams of the page, 0 for no limit. */
+  private final int maxResults;
+
+  /** The cursor where the page starts, or null. */
+  private final String cursor;
+
+  /**
+   * Instantiates a new key of the cache.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param signature the signature of the letters
+   * @param query the limits of the search and the cursor where the page starts
+   */
+  public AnagramCacheKey(Dictionary dictionary, long[] signature, AnagramQuery query) {
+    this.version = dictionary.getVersion();
+    this.signature = signature.clone();
+    this.minWordLength = query.getMinWordLength();
+    this.maxWords = query.getMaxWords();
+    this.maxResults = query.getMaxResults();
+    this.cursor = query.getCursor();
+  }
+
+  /**
+   * Instantiates a copy of a key for another snapshot of the dictionary.
+   *
+   * @param key the key
+   * @param version the version of the other snapshot
+   */
+  private AnagramCacheKey(AnagramCacheKey key, long version) {
+    this.version = version;
+    this.signature = key.signature;
+    this.minWordLength = key.minWordLength;
+    this.maxWords = key.maxWords;
+    this.maxResults = key.maxResults;
+    this.cursor = key.cursor;
+  }
+
+  /**
+   * Gets the same key for another snapshot of the dictionary, to keep a page whose anagrams have
+   * not changed.
+   *
+   * @param otherVersion the version of the other snapshot
+   * @return the key of the page into the other snapshot
+   */
+  public AnagramCacheKey withVersion(long otherVersion) {
+    return new AnagramCacheKey(this, otherVersion);
+  }
+
+  /**
+   * Gets the version of the snapshot of the dictionary.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets the signature of the letters.
+   *
+   * @return a copy of the signature
+   */
+  public long[] getSignature() {
+    return signature.clone();
+  }
+
+  /**
+   * Gets the cursor where the page starts.
+   *
+   * @return the cursor, or null if it is the first page
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Method to compare two keys.
+   *
+   * @param obj the other key
+   * @return true if both keys are the same page of the same snapshot
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof AnagramCacheKey)) {
+      return false;
+    }
+
+    AnagramCacheKey other = (AnagramCacheKey) obj;
+    return version == other.version && minWordLength == other.minWordLength
+        && maxWords == other.maxWords && maxResults == other.maxResults
+        && Arrays.equals(signature, other.signature) && Objects.equals(cursor, other.cursor);
+  }
+
+  /**
+   * Calculate the hash code of the key.
+   *
+   * @return the hash code
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(version, Arrays.hashCode(signature), minWordLength, maxWords, maxResults,
+        cursor);
+  }
+}
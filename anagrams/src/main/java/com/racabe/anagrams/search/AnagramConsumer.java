@@ -0,0 +1,32 @@
+package com.racabe.anagrams.search;
+
+import com.racabe.anagrams.model.Dictionary;
+
+/**
+ * The Interface AnagramConsumer, that receives each anagram as soon as the search finds it, with
+ * its words sorted alphabetically and separated by a space.
+ */
+public interface AnagramConsumer extends AnagramSink {
+
+  /**
+   * Receive an anagram found.
+   *
+   * @param anagram the anagram, with its words sorted alphabetically and separated by a space
+   * @return true to continue the search, false to stop it
+   */
+  boolean accept(String anagram);
+
+  /**
+   * Receive an anagram found, as the ids of its words into the dictionary. The search calls this
+   * method, which renders the anagram and passes it to {@link #accept(String)}.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param wordIds the ids of the words, only valid during the call
+   * @param count the number of words
+   * @return true to continue the search, false to stop it
+   */
+  @Override
+  default boolean accept(Dictionary dictionary, int[] wordIds, int count) {
+    return this.accept(AnagramList.render(dictionary, wordIds, 0, count));
+  }
+}
@@ -0,0 +1,176 @@
+package com.racabe.anagrams.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.racabe.anagrams.exception.InvalidCursorException;
+
+/**
+ * The class AnagramCursor, the position where a search stopped, so it can be resumed later without
+ * exploring again what was already explored. The anagrams are always found in the same order for a
+ * version of the dictionary, and a cursor records, for each word of the anagram being built, the
+ * length and the position into its bucket of the signature chosen. The search resumes including
+ * the position of the cursor:
+ *
+ * <ul>
+ * <li>If the search stopped at an anagram, the cursor also records the position of each of its
+ * words, and the search resumes at that anagram.</li>
+ * <li>If the search stopped while exploring (for example, when the time was over), the signature of
+ * the last word of the cursor had not been explored yet, and the search resumes exploring it.</li>
+ * </ul>
+ *
+ * <p>A cursor is sent to the clients encoded as an opaque URL-safe string.
+ */
+final class AnagramCursor {
+
+  /** The version of the dictionary. */
+  private final long version;
+
+  /** The length of the signature chosen at each level. */
+  private final int[] lengths;
+
+  /** The position into its bucket of the signature chosen at each level. */
+  private final int[] positions;
+
+  /** The position into the word table of the word chosen at each level, or null. */
+  private final int[] words;
+
+  /**
+   * Instantiates a new anagram cursor.
+   *
+   * @param version the version of the dictionary
+   * @param lengths the length of the signature chosen at each level
+   * @param positions the position into its bucket of the signature chosen at each level
+   * @param words the position of the word chosen at each level, or null if the search stopped
+   *        while exploring
+   */
+  AnagramCursor(long version, int[] lengths, int[] positions, int[] words) {
+    this.version = version;
+    this.lengths = lengths;
+    this.positions = positions;
+    this.words = words;
+  }
+
+  /**
+   * Gets the version of the dictionary.
+   *
+   * @return the version
+   */
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * Create a cursor at the same position for another snapshot with the same signatures at the same
+   * positions, like the snapshot of another node with the same fingerprint.
+   *
+   * @param newVersion the version of the other snapshot
+   * @return the cursor
+   */
+  AnagramCursor withVersion(long newVersion) {
+    return new AnagramCursor(newVersion, lengths, positions, words);
+  }
+
+  /**
+   * Gets the number of levels of the cursor.
+   *
+   * @return the number of levels
+   */
+  int levels() {
+    return lengths.length;
+  }
+
+  /**
+   * Gets the length of the signature chosen at a level.
+   *
+   * @param level the level
+   * @return the length
+   */
+  int getLength(int level) {
+    return lengths[level];
+  }
+
+  /**
+   * Gets the position into its bucket of the signature chosen at a level.
+   *
+   * @param level the level
+   * @return the position
+   */
+  int getPosition(int level) {
+    return positions[level];
+  }
+
+  /**
+   * Method to know if the search stopped at an anagram.
+   *
+   * @return true if the cursor records the words of an anagram
+   */
+  boolean hasWords() {
+    return words != null;
+  }
+
+  /**
+   * Gets the position of the word chosen at a level.
+   *
+   * @param level the level
+   * @return the position into the word table
+   */
+  int getWord(int level) {
+    return words[level];
+  }
+
+  /**
+   * Encode the cursor into an opaque URL-safe string.
+   *
+   * @return the cursor encoded
+   */
+  String encode() {
+    StringBuilder text = new StringBuilder().append(version);
+    for (int level = 0; level < lengths.length; level++) {
+      text.append(';').append(lengths[level]).append('.').append(positions[level]);
+      if (words != null) {
+        text.append('.').append(words[level]);
+      }
+    }
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(text.toString().getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * Decode a cursor encoded by {@link #encode()}.
+   *
+   * @param cursor the cursor encoded
+   * @return the cursor
+   */
+  static AnagramCursor decode(String cursor) {
+    try {
+      String[] parts =
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(";");
+      int levels = parts.length - 1;
+      if (levels == 0) {
+        // A cursor always points to the signature of at least one word
+        throw new InvalidCursorException("Sorry! The cursor " + cursor + " is not valid");
+      }
+      int[] lengths = new int[levels];
+      int[] positions = new int[levels];
+      int[] words = null;
+      for (int level = 0; level < levels; level++) {
+        String[] values = parts[level + 1].split("\\.");
+        if (level == 0 && values.length == 3) {
+          words = new int[levels];
+        }
+        if (values.length != (words == null ? 2 : 3)) {
+          throw new InvalidCursorException("Sorry! The cursor " + cursor + " is not valid");
+        }
+        lengths[level] = Integer.parseInt(values[0]);
+        positions[level] = Integer.parseInt(values[1]);
+        if (words != null) {
+          words[level] = Integer.parseInt(values[2]);
+        }
+      }
+      return new AnagramCursor(Long.parseLong(parts[0]), lengths, positions, words);
+    } catch (IllegalArgumentException ex) {
+      throw new InvalidCursorException("Sorry! The cursor " + cursor + " is not valid");
+    }
+  }
+}
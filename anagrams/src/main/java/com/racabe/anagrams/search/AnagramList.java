@@ -0,0 +1,230 @@
+package com.racabe.anagrams.search;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.racabe.anagrams.model.Dictionary;
+
+/**
+ * The class AnagramList, the anagrams found by a search kept as the ids of their words. The ids of
+ * all the anagrams are packed into one array of ints, so a page of anagrams does not keep a string
+ * per anagram, and each anagram is rendered, with its words sorted alphabetically and separated by
+ * a space, only when it is read, like when the page is written to JSON. The search generates every
+ * combination of words once, so the list never has duplicates.
+ *
+ * <p>The list is filled as the sink of a search, and it can not be modified by the methods of
+ * {@link java.util.List}. It is not thread safe while it is filled.
+ */
+public final class AnagramList extends AbstractList<String>
+    implements RandomAccess, AnagramSink {
+
+  /** The snapshot of the dictionary of the ids. */
+  private final Dictionary dictionary;
+
+  /** The ids of the words of all the anagrams, one anagram after the other. */
+  private int[] wordIds = new int[64];
+
+  /** The position into the ids after the last word of each anagram. */
+  private int[] ends = new int[16];
+
+  /** The number of anagrams. */
+  private int size;
+
+  /** The number of ids. */
+  private int idCount;
+
+  /**
+   * Instantiates a new empty anagram list.
+   *
+   * @param dictionary the snapshot of the dictionary of the ids
+   */
+  public AnagramList(Dictionary dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  /**
+   * Render an anagram, with its words sorted alphabetically and separated by a space.
+   *
+   * @param dictionary the snapshot of the dictionary of the ids
+   * @param wordIds the array with the ids of the words
+   * @param from the position of the first id
+   * @param to the position after the last id
+   * @return the anagram
+   */
+  static String render(Dictionary dictionary, int[] wordIds, int from, int to) {
+    String[] words = new String[to - from];
+    int length = words.length - 1;
+    for (int pos = 0; pos < words.length; pos++) {
+      words[pos] = dictionary.getWord(wordIds[from + pos]);
+      length += words[pos].length();
+    }
+    Arrays.sort(words);
+
+    // The letters are copied once, into an array of the exact length
+    char[] letters = new char[length];
+    int position = 0;
+    for (String word : words) {
+      if (position > 0) {
+        letters[position++] = ' ';
+      }
+      word.getChars(0, word.length(), letters, position);
+      position += word.length();
+    }
+    return new String(letters);
+  }
+
+  /**
+   * Gets an anagram, rendering it from the ids of its words.
+   *
+   * @param index the position of the anagram
+   * @return the anagram, with its words sorted alphabetically and separated by a space
+   */
+  @Override
+  public String get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return render(dictionary, wordIds, index == 0 ? 0 : ends[index - 1], ends[index]);
+  }
+
+  /**
+   * Gets the number of words of an anagram.
+   *
+   * @param index the position of the anagram
+   * @return the number of words
+   */
+  public int getWordCount(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return ends[index] - (index == 0 ? 0 : ends[index - 1]);
+  }
+
+  /**
+   * Gets the ids of the words of an anagram, in the order they were found.
+   *
+   * @param index the position of the anagram
+   * @param target the array where the ids are copied, with room for all of them
+   * @return the number of words of the anagram
+   */
+  public int getWordIds(int index, int[] target) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    int from = index == 0 ? 0 : ends[index - 1];
+    System.arraycopy(wordIds, from, target, 0, ends[index] - from);
+    return ends[index] - from;
+  }
+
+  /**
+   * Gets the snapshot of the dictionary of the ids.
+   *
+   * @return the snapshot of the dictionary
+   */
+  public Dictionary getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Gets the number of anagrams.
+   *
+   * @return the number of anagrams
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Add an anagram found, copying the ids of its words.
+   *
+   * @param anagramDictionary the snapshot of the dictionary, the one of the list
+   * @param anagramWordIds the ids of the words
+   * @param count the number of words
+   * @return true to continue the search
+   */
+  @Override
+  public boolean accept(Dictionary anagramDictionary, int[] anagramWordIds, int count) {
+    this.add(anagramWordIds, 0, count);
+    return true;
+  }
+
+  /**
+   * Add an anagram.
+   *
+   * @param anagramWordIds the array with the ids of the words
+   * @param from the position of the first id
+   * @param count the number of words
+   */
+  private void add(int[] anagramWordIds, int from, int count) {
+    if (idCount + count > wordIds.length) {
+      wordIds = Arrays.copyOf(wordIds, Math.max(wordIds.length * 2, idCount + count));
+    }
+    if (size == ends.length) {
+      ends = Arrays.copyOf(ends, Math.max(ends.length * 2, 16));
+    }
+    System.arraycopy(anagramWordIds, from, wordIds, idCount, count);
+    idCount += count;
+    ends[size++] = idCount;
+  }
+
+  /**
+   * Add the anagrams of another list of the same dictionary at the end of this one.
+   *
+   * @param anagrams the other list
+   * @param first the position of the first anagram of the other list to add
+   */
+  void append(AnagramList anagrams, int first) {
+    for (int index = first; index < anagrams.size; index++) {
+      int from = index == 0 ? 0 : anagrams.ends[index - 1];
+      this.add(anagrams.wordIds, from, anagrams.ends[index] - from);
+    }
+  }
+
+  /**
+   * Copy the anagrams to another snapshot of the same dictionary, like the one that replaces the
+   * snapshot of the list with an update, so the list does not keep the old one. The ids of a word
+   * change between snapshots, so each word is looked up once into the other one.
+   *
+   * @param target the other snapshot, with all the words of the anagrams
+   * @return a new list with the ids of the words into the other snapshot
+   */
+  public AnagramList rebind(Dictionary target) {
+    Map<Integer, Integer> targetIds = new HashMap<Integer, Integer>();
+    int[] rebound = new int[idCount];
+    for (int pos = 0; pos < idCount; pos++) {
+      Integer targetId = targetIds.get(wordIds[pos]);
+      if (targetId == null) {
+        String word = dictionary.getWord(wordIds[pos]);
+        targetId = target.getWordId(word);
+        if (targetId < 0) {
+          throw new IllegalArgumentException(
+              "The word " + word + " is not into the version " + target.getVersion());
+        }
+        targetIds.put(wordIds[pos], targetId);
+      }
+      rebound[pos] = targetId;
+    }
+
+    AnagramList anagrams = new AnagramList(target);
+    anagrams.wordIds = rebound;
+    anagrams.ends = Arrays.copyOf(ends, size);
+    anagrams.size = size;
+    anagrams.idCount = idCount;
+    return anagrams;
+  }
+
+  /**
+   * Release the capacity not used, when the list has been filled.
+   *
+   * @return this list
+   */
+  public AnagramList trim() {
+    wordIds = Arrays.copyOf(wordIds, idCount);
+    ends = Arrays.copyOf(ends, size);
+    return this;
+  }
+}
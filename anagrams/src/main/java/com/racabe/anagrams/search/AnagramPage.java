@@ -0,0 +1,78 @@
+package com.racabe.anagrams.search;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The class AnagramPage, with the anagrams returned by a search with limits, and the cursor to get
+ * the next ones if the search did not finish. A page is immutable, so it can be shared by the
+ * requests of the same phrase.
+ */
+public final class AnagramPage {
+
+  /** The anagrams found. */
+  private final List<String> anagrams;
+
+  /** Whether the search has finished. */
+  private final boolean complete;
+
+  /** Whether the search was stopped because the time was over. */
+  private final boolean timedOut;
+
+  /** The cursor to get the next anagrams, or null if the search has finished. */
+  private final String nextCursor;
+
+  /**
+   * Instantiates a new anagram page.
+   *
+   * @param anagrams the anagrams found
+   * @param complete whether the search has finished
+   * @param timedOut whether the search was stopped because the time was over
+   * @param nextCursor the cursor to get the next anagrams, or null if the search has finished
+   */
+  public AnagramPage(List<String> anagrams, boolean complete, boolean timedOut,
+      String nextCursor) {
+    // An anagram list can not be modified, and it keeps the ids of the words for the encoders
+    this.anagrams =
+        anagrams instanceof AnagramList ? anagrams : Collections.unmodifiableList(anagrams);
+    this.complete = complete;
+    this.timedOut = timedOut;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Gets the anagrams found.
+   *
+   * @return the anagrams
+   */
+  public List<String> getAnagrams() {
+    return anagrams;
+  }
+
+  /**
+   * Method to know if the search has finished.
+   *
+   * @return true if there are no more anagrams
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /**
+   * Method to know if the search was stopped because the time was over.
+   *
+   * @return true if the time was over
+   */
+  public boolean isTimedOut() {
+    return timedOut;
+  }
+
+  /**
+   * Gets the cursor to get the next anagrams.
+   *
+   * @return the cursor, or null if the search has finished
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
@@ -0,0 +1,28 @@
+package com.racabe.anagrams.search;
+
+import java.io.IOException;
+
+import com.racabe.anagrams.model.Dictionary;
+
+/**
+ * The interface AnagramPeer, another node of the service that searches a range of the parts of a
+ * {@link DistributedAnagramSearch}. The peer must have a snapshot of the dictionary with the same
+ * fingerprint, so its parts are numbered in the same way as the ones of the coordinator.
+ */
+public interface AnagramPeer {
+
+  /**
+   * Search the anagrams of a range of the parts of a query, the signatures that can be the first
+   * word of an anagram in the order of the split of the query.
+   *
+   * @param dictionary the snapshot of the dictionary of the coordinator
+   * @param query the word or phrase used to search anagrams, and the limits and the time left
+   * @param from the first part of the range
+   * @param to the end of the range, exclusive
+   * @param parts the number of parts of the query, to check that the peer splits it in the same way
+   * @return the anagrams found by the peer, with the cursor of the version of the peer
+   * @throws IOException if the peer can not be reached, it fails or it does not answer in time
+   */
+  AnagramPage search(Dictionary dictionary, AnagramQuery query, int from, int to, int parts)
+      throws IOException;
+}
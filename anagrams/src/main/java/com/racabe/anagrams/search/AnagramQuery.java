@@ -0,0 +1,146 @@
+package com.racabe.anagrams.search;
+
+/**
+ * The class AnagramQuery, with the word or phrase to search and the limits of the search.
+ */
+public final class AnagramQuery {
+
+  /** The default minimum length for a valid word into an anagram. */
+  public static final int DEFAULT_MIN_WORD_LENGTH = 3;
+
+  /** The word or phrase used to search anagrams. */
+  private final String words;
+
+  /** The minimum length for a valid word into an anagram. */
+  private int minWordLength = DEFAULT_MIN_WORD_LENGTH;
+
+  /** The maximum number of words of an anagram, 0 for no limit. */
+  private int maxWords;
+
+  /** The maximum number of anagrams to return, 0 for no limit. */
+  private int maxResults;
+
+  /** The maximum time to search, in milliseconds, 0 for no limit. */
+  private long timeoutMillis;
+
+  /** The cursor where a previous search stopped, or null to start from the beginning. */
+  private String cursor;
+
+  /**
+   * Instantiates a new anagram query without limits.
+   *
+   * @param words the word or phrase used to search anagrams
+   */
+  public AnagramQuery(String words) {
+    this.words = words;
+  }
+
+  /**
+   * Gets the word or phrase used to search anagrams.
+   *
+   * @return the words
+   */
+  public String getWords() {
+    return words;
+  }
+
+  /**
+   * Gets the minimum length for a valid word into an anagram.
+   *
+   * @return the minimum word length
+   */
+  public int getMinWordLength() {
+    return minWordLength;
+  }
+
+  /**
+   * Sets the minimum length for a valid word into an anagram.
+   *
+   * @param minWordLength the minimum word length
+   * @return this query
+   */
+  public AnagramQuery minWordLength(int minWordLength) {
+    this.minWordLength = Math.max(1, minWordLength);
+    return this;
+  }
+
+  /**
+   * Gets the maximum number of words of an anagram.
+   *
+   * @return the maximum number of words, 0 for no limit
+   */
+  public int getMaxWords() {
+    return maxWords;
+  }
+
+  /**
+   * Sets the maximum number of words of an anagram.
+   *
+   * @param maxWords the maximum number of words, 0 for no limit
+   * @return this query
+   */
+  public AnagramQuery maxWords(int maxWords) {
+    this.maxWords = Math.max(0, maxWords);
+    return this;
+  }
+
+  /**
+   * Gets the maximum number of anagrams to return.
+   *
+   * @return the maximum number of anagrams, 0 for no limit
+   */
+  public int getMaxResults() {
+    return maxResults;
+  }
+
+  /**
+   * Sets the maximum number of anagrams to return.
+   *
+   * @param maxResults the maximum number of anagrams, 0 for no limit
+   * @return this query
+   */
+  public AnagramQuery maxResults(int maxResults) {
+    this.maxResults = Math.max(0, maxResults);
+    return this;
+  }
+
+  /**
+   * Gets the maximum time to search.
+   *
+   * @return the maximum time in milliseconds, 0 for no limit
+   */
+  public long getTimeoutMillis() {
+    return timeoutMillis;
+  }
+
+  /**
+   * Sets the maximum time to search.
+   *
+   * @param timeoutMillis the maximum time in milliseconds, 0 for no limit
+   * @return this query
+   */
+  public AnagramQuery timeoutMillis(long timeoutMillis) {
+    this.timeoutMillis = Math.max(0, timeoutMillis);
+    return this;
+  }
+
+  /**
+   * Gets the cursor where a previous search stopped.
+   *
+   * @return the cursor, or null to start from the beginning
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Sets the cursor where a previous search stopped.
+   *
+   * @param cursor the cursor, or null to start from the beginning
+   * @return this query
+   */
+  public AnagramQuery cursor(String cursor) {
+    this.cursor = cursor;
+    return this;
+  }
+}
@@ -0,0 +1,548 @@
+package com.racabe.anagrams.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.racabe.anagrams.exception.InvalidCursorException;
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.WordBucket;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The class AnagramSearch, a depth-first search of the anagrams of a phrase. At each level only the
+ * signatures whose letters fit into the letters remaining are chosen, so the search never explores
+ * a combination of words that can not be completed. The signatures are chosen in a canonical order
+ * (longest words first, then by position into the bucket, and never going back), so every
+ * combination of words is found only once and no permutation of it is generated. The canonical
+ * order also makes the order of the anagrams deterministic for a version of the dictionary, so a
+ * search stopped by a limit can be resumed later from an {@link AnagramCursor}.
+ *
+ * <p>The anagrams are passed to an {@link AnagramSink} as soon as they are found, so they do not
+ * need to be kept in memory while the search goes on. A search keeps the state of one query and
+ * it is not thread safe.
+ */
+public final class AnagramSearch {
+
+  /** The deadline is checked each time this number of signatures (minus one) has been visited. */
+  private static final int DEADLINE_CHECK_MASK = 1023;
+
+  /** The snapshot of the dictionary. */
+  private final Dictionary dictionary;
+
+  /** The minimum length of a word into an anagram. */
+  private final int minWordLength;
+
+  /** The maximum number of words of an anagram, 0 for no limit. */
+  private final int maxWords;
+
+  /** The time when the search must stop, as given by {@link System#nanoTime()}. */
+  private final long deadline;
+
+  /** Whether the search has a deadline. */
+  private final boolean hasDeadline;
+
+  /** The cursor to resume a previous search from, or null. */
+  private final AnagramCursor resume;
+
+  /**
+   * The positions of the signatures of each length contained into the letters of the query, or
+   * null for the lengths without any. They are found once per query, so each level of the search
+   * only tests the words that can be part of an anagram instead of the whole dictionary.
+   */
+  private int[][] candidates;
+
+  /** The signatures of the letters remaining at each level of the search. */
+  private long[] letters;
+
+  /** The length of the signature chosen at each level of the search. */
+  private int[] chosenLengths;
+
+  /** The bucket of the signature chosen at each level of the search. */
+  private WordBucket[] chosenBuckets;
+
+  /** The position into its bucket of the signature chosen at each level of the search. */
+  private int[] chosenPositions;
+
+  /** The id of the word chosen at each level when the signatures found are expanded into words. */
+  private int[] chosenWordIds;
+
+  /** The position into the word table of the word chosen at each level. */
+  private int[] chosenWordPositions;
+
+  /** The sink of the anagrams found. */
+  private AnagramSink sink;
+
+  /** Whether the search has been stopped, by the sink or because the time was over. */
+  private boolean stopped;
+
+  /** Whether the search has been stopped because the time was over. */
+  private boolean timedOut;
+
+  /** The number of signatures visited. */
+  private long visited;
+
+  /** The number of anagrams found. */
+  private long found;
+
+  /** The cursor where the search stopped, or null if it has finished. */
+  private AnagramCursor cursor;
+
+  /** The signatures of the first word collected when the search is split, or null. */
+  private List<int[]> topLevel;
+
+  /**
+   * Instantiates a new anagram search.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the limits of the search and the cursor to resume it from
+   */
+  public AnagramSearch(Dictionary dictionary, AnagramQuery query) {
+    this(dictionary, query.getMinWordLength(), query.getMaxWords(),
+        query.getTimeoutMillis() > 0,
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(query.getTimeoutMillis()),
+        decodeCursor(dictionary, query), null);
+  }
+
+  /**
+   * Instantiates a new anagram search.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param minWordLength the minimum length of a word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @param hasDeadline whether the search has a deadline
+   * @param deadline the time when the search must stop, as given by {@link System#nanoTime()}
+   * @param resume the cursor to resume a previous search from, or null
+   * @param candidates the signatures contained into the letters of the query, or null to find them
+   */
+  private AnagramSearch(Dictionary dictionary, int minWordLength, int maxWords,
+      boolean hasDeadline, long deadline, AnagramCursor resume, int[][] candidates) {
+    this.dictionary = dictionary;
+    this.minWordLength = minWordLength;
+    this.maxWords = maxWords;
+    this.hasDeadline = hasDeadline;
+    this.deadline = deadline;
+    this.resume = resume;
+    this.candidates = candidates;
+  }
+
+  /**
+   * Decode the cursor of a query, checking that it belongs to the version of the dictionary.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the query
+   * @return the cursor, or null if the query has no cursor
+   */
+  private static AnagramCursor decodeCursor(Dictionary dictionary, AnagramQuery query) {
+    if (query.getCursor() == null) {
+      return null;
+    }
+
+    AnagramCursor cursor = AnagramCursor.decode(query.getCursor());
+    if (cursor.getVersion() != dictionary.getVersion()) {
+      throw new InvalidCursorException(
+          "Sorry! The dictionary " + dictionary.getId() + " has changed since the cursor was "
+              + "created, please start the search again");
+    }
+    return cursor;
+  }
+
+  /**
+   * Check the cursor of a query before searching, so a cursor that is not valid can be rejected
+   * before the response starts, as the streams do.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the query
+   */
+  public static void checkCursor(Dictionary dictionary, AnagramQuery query) {
+    AnagramCursor cursor = decodeCursor(dictionary, query);
+    if (cursor != null) {
+      checkPath(cursor, LetterSignature.of(query.getWords()), query.getMinWordLength(),
+          query.getMaxWords());
+    }
+  }
+
+  /**
+   * Check that a cursor is a position of the canonical order of a search, so resuming it never
+   * leaves that order and a page never returns the anagrams of another one. The words are not
+   * longer than the previous ones nor than the letters remaining, a signature of the same length
+   * is not before the previous one, and an anagram uses all the letters.
+   *
+   * @param cursor the cursor
+   * @param signature the signature of the letters
+   * @param minWordLength the minimum length of a word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @throws InvalidCursorException if the cursor is not a position of the search
+   */
+  private static void checkPath(AnagramCursor cursor, long[] signature, int minWordLength,
+      int maxWords) {
+    boolean valid = cursor.levels() <= levels(signature, minWordLength, maxWords);
+    int remainingLength = LetterSignature.length(signature, 0);
+    for (int level = 0; level < cursor.levels() && valid; level++) {
+      int length = cursor.getLength(level);
+      boolean sameLength = level > 0 && length == cursor.getLength(level - 1);
+      valid = length >= minWordLength && length <= remainingLength
+          && (level == 0 || length <= cursor.getLength(level - 1))
+          && cursor.getPosition(level) >= 0
+          && (!sameLength || cursor.getPosition(level) >= cursor.getPosition(level - 1))
+          && (!cursor.hasWords() || cursor.getWord(level) >= 0);
+      remainingLength -= length;
+    }
+    if (!valid || cursor.hasWords() && remainingLength != 0) {
+      throw new InvalidCursorException("Sorry! The cursor does not belong to this search");
+    }
+  }
+
+  /**
+   * Gets the maximum number of words of the anagrams of some letters.
+   *
+   * @param signature the signature of the letters
+   * @param minWordLength the minimum length of a word into an anagram
+   * @param maxWords the maximum number of words of an anagram, 0 for no limit
+   * @return the maximum number of words, 0 if the letters are too few
+   */
+  private static int levels(long[] signature, int minWordLength, int maxWords) {
+    int length = LetterSignature.length(signature, 0);
+    if (length < minWordLength) {
+      return 0;
+    }
+
+    // The deepest level uses words of the minimum length
+    int levels = length / minWordLength;
+    return maxWords > 0 ? Math.min(levels, maxWords) : levels;
+  }
+
+  /**
+   * Search the anagrams of some letters.
+   *
+   * @param signature the signature of the letters
+   * @return the anagrams found, each one with its words sorted alphabetically and separated by a
+   *         space
+   */
+  public Set<String> search(long[] signature) {
+    Set<String> anagrams = new LinkedHashSet<String>();
+    AnagramConsumer collector = anagram -> {
+      anagrams.add(anagram);
+      return true;
+    };
+    this.search(signature, collector);
+    return anagrams;
+  }
+
+  /**
+   * Search the anagrams of some letters, passing each one to a sink as soon as it is found.
+   *
+   * @param signature the signature of the letters
+   * @param anagramSink the sink of the anagrams found
+   * @return true if the search has finished, false if it was stopped
+   */
+  public boolean search(long[] signature, AnagramSink anagramSink) {
+    sink = anagramSink;
+
+    int levels = this.prepare(signature);
+    if (levels > 0) {
+      int length = LetterSignature.length(signature, 0);
+      this.searchWords(0, levels, length, Math.min(length, dictionary.getMaxWordLength()), 0,
+          resume != null);
+    }
+    return !stopped;
+  }
+
+  /**
+   * Split the search by the signature of the first word of the anagrams. Each part can be searched
+   * on its own with {@link #searchSignature}, and the anagrams of the parts, in the order returned,
+   * are the anagrams of the whole search in the same order.
+   *
+   * @param signature the signature of the letters
+   * @return the length, the position into its bucket and whether the cursor must be followed (1 or
+   *         0) of each signature that can be the first word of an anagram
+   */
+  List<int[]> split(long[] signature) {
+    topLevel = new ArrayList<int[]>();
+
+    int levels = this.prepare(signature);
+    if (levels > 0) {
+      int length = LetterSignature.length(signature, 0);
+      this.searchWords(0, levels, length, Math.min(length, dictionary.getMaxWordLength()), 0,
+          resume != null);
+    }
+
+    List<int[]> parts = topLevel;
+    topLevel = null;
+    return parts;
+  }
+
+  /**
+   * Create a search with the same limits and deadline as this one, to search one of its parts. The
+   * candidates found by this search are shared with the part, they are never modified.
+   *
+   * @param resuming whether the part must follow the cursor of this search
+   * @return the search
+   */
+  AnagramSearch fork(boolean resuming) {
+    return new AnagramSearch(dictionary, minWordLength, maxWords, hasDeadline, deadline,
+        resuming ? resume : null, candidates);
+  }
+
+  /**
+   * Search the anagrams whose first word has a signature, as returned by {@link #split}.
+   *
+   * @param signature the signature of the letters
+   * @param length the length of the signature of the first word
+   * @param position the position of the signature of the first word into its bucket
+   * @param onPath whether the search must follow the cursor to resume from
+   * @param anagramSink the sink of the anagrams found
+   * @return true if the search has finished, false if it was stopped
+   */
+  boolean searchSignature(long[] signature, int length, int position, boolean onPath,
+      AnagramSink anagramSink) {
+    sink = anagramSink;
+
+    int levels = this.prepare(signature);
+    if (hasDeadline && System.nanoTime() - deadline > 0) {
+      this.stopExploring(0, length, position);
+    } else {
+      this.chooseSignature(0, levels, LetterSignature.length(signature, 0), length,
+          dictionary.getCandidatesByLength(length), position, onPath);
+    }
+    return !stopped;
+  }
+
+  /**
+   * Method to know if the search was stopped because the time was over.
+   *
+   * @return true if the time was over
+   */
+  public boolean isTimedOut() {
+    return timedOut;
+  }
+
+  /**
+   * Gets the number of signatures visited, the nodes of the search tree explored.
+   *
+   * @return the number of signatures visited
+   */
+  public long getVisited() {
+    return visited;
+  }
+
+  /**
+   * Gets the number of anagrams found and passed to the sink, including the one that the sink did
+   * not accept.
+   *
+   * @return the number of anagrams found
+   */
+  public long getFound() {
+    return found;
+  }
+
+  /**
+   * Gets the cursor to resume the search where it stopped. The search resumes including the anagram
+   * that the sink did not accept.
+   *
+   * @return the cursor encoded, or null if the search has finished
+   */
+  public String getCursor() {
+    return cursor == null ? null : cursor.encode();
+  }
+
+  /**
+   * Prepare the state of the search for some letters.
+   *
+   * @param signature the signature of the letters
+   * @return the maximum number of words of an anagram, 0 if the letters are too few
+   */
+  private int prepare(long[] signature) {
+    int levels = levels(signature, minWordLength, maxWords);
+    if (levels == 0) {
+      return 0;
+    }
+    if (resume != null) {
+      checkPath(resume, signature, minWordLength, maxWords);
+    }
+
+    letters = new long[(levels + 1) * LetterSignature.LONGS];
+    chosenLengths = new int[levels];
+    chosenBuckets = new WordBucket[levels];
+    chosenPositions = new int[levels];
+    chosenWordIds = new int[levels];
+    chosenWordPositions = new int[levels];
+    System.arraycopy(signature, 0, letters, 0, LetterSignature.LONGS);
+
+    if (candidates == null) {
+      int length = LetterSignature.length(signature, 0);
+      candidates = new int[Math.min(length, dictionary.getMaxWordLength()) + 1][];
+      for (int wordLength = minWordLength; wordLength < candidates.length; wordLength++) {
+        WordBucket bucket = dictionary.getCandidatesByLength(wordLength);
+        if (bucket != null) {
+          int[] positions = bucket.positionsContainedIn(signature, 0);
+          candidates[wordLength] = positions.length > 0 ? positions : null;
+        }
+      }
+    }
+    return levels;
+  }
+
+  /**
+   * Choose the signature of the next word of the anagram, recursively, until no letter remains.
+   *
+   * @param level the number of words chosen
+   * @param levels the maximum number of words of the anagram
+   * @param remainingLength the number of letters remaining
+   * @param fromLength the length of the longest word that can be chosen, to keep the canonical order
+   * @param fromPosition the first position into the bucket of this length that can be chosen
+   * @param onPath whether the search is following the path of the cursor to resume from
+   */
+  private void searchWords(int level, int levels, int remainingLength, int fromLength,
+      int fromPosition, boolean onPath) {
+    int offset = level * LetterSignature.LONGS;
+
+    // When resuming, go straight to the signature of the cursor at this level, never to a longer
+    // word than the canonical order allows
+    int maxLength = Math.min(fromLength, remainingLength);
+    int startLength = onPath ? Math.min(resume.getLength(level), maxLength) : maxLength;
+    int positionLength = onPath ? startLength : fromLength;
+    int startPosition = onPath ? resume.getPosition(level) : fromPosition;
+
+    for (int length = startLength; length >= minWordLength && !stopped; length--) {
+      // The letters left after this word must form at least another word
+      int nextLength = remainingLength - length;
+      if (nextLength > 0 && nextLength < minWordLength) {
+        continue;
+      }
+
+      // The next words are not longer than this one, so if they can not cover the letters left,
+      // neither can the shorter words
+      if (nextLength > (levels - level - 1) * length) {
+        break;
+      }
+
+      int[] positions = length < candidates.length ? candidates[length] : null;
+      if (positions == null) {
+        continue;
+      }
+      WordBucket bucket = dictionary.getCandidatesByLength(length);
+
+      int first = 0;
+      if (length == positionLength) {
+        // The first candidate at or after the position to start from
+        first = Arrays.binarySearch(positions, startPosition);
+        first = first < 0 ? -(first + 1) : first;
+      }
+      for (int candidate = first; candidate < positions.length && !stopped; candidate++) {
+        int pos = positions[candidate];
+        visited++;
+        if (topLevel == null && hasDeadline && (visited & DEADLINE_CHECK_MASK) == 0
+            && System.nanoTime() - deadline > 0) {
+          this.stopExploring(level, length, pos);
+          return;
+        }
+
+        // All the candidates are contained into the letters of the first level
+        if (level == 0 || bucket.isContainedIn(pos, letters, offset)) {
+          boolean seek = onPath && length == startLength && pos == startPosition;
+          if (topLevel != null) {
+            // Splitting the search, so the first word is only collected
+            topLevel.add(new int[] {length, pos, seek ? 1 : 0});
+          } else {
+            this.chooseSignature(level, levels, remainingLength, length, bucket, pos, seek);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Choose a signature as the next word of the anagram and search the words for the letters left.
+   *
+   * @param level the number of words chosen
+   * @param levels the maximum number of words of the anagram
+   * @param remainingLength the number of letters remaining
+   * @param length the length of the signature
+   * @param bucket the bucket of the signature
+   * @param pos the position of the signature into the bucket
+   * @param seek whether the search is following the path of the cursor to resume from
+   */
+  private void chooseSignature(int level, int levels, int remainingLength, int length,
+      WordBucket bucket, int pos, boolean seek) {
+    int offset = level * LetterSignature.LONGS;
+    int nextLength = remainingLength - length;
+
+    chosenLengths[level] = length;
+    chosenBuckets[level] = bucket;
+    chosenPositions[level] = pos;
+    if (nextLength == 0) {
+      this.expandWords(0, level + 1, seek && resume.hasWords());
+    } else {
+      bucket.subtractFrom(pos, letters, offset, letters, offset + LetterSignature.LONGS);
+      this.searchWords(level + 1, levels, nextLength, length, pos,
+          seek && level + 1 < resume.levels());
+    }
+  }
+
+  /**
+   * Expand the signatures chosen into all the combinations of their words. When the same signature
+   * has been chosen several times, its words are chosen in order, so "dog god" is generated but not
+   * "god dog".
+   *
+   * @param level the level to expand
+   * @param levels the number of signatures chosen
+   * @param onPath whether the expansion is following the words of the cursor to resume from
+   */
+  private void expandWords(int level, int levels, boolean onPath) {
+    if (level == levels) {
+      // The anagram is passed by the ids of its words, it is rendered only if the sink needs it
+      found++;
+      if (!sink.accept(dictionary, chosenWordIds, levels)) {
+        this.stopAtAnagram(levels);
+      }
+      return;
+    }
+
+    WordBucket bucket = chosenBuckets[level];
+    int pos = chosenPositions[level];
+    int first = bucket.firstWord(pos);
+    if (level > 0 && chosenBuckets[level - 1] == bucket && chosenPositions[level - 1] == pos) {
+      first = chosenWordPositions[level - 1];
+    }
+    if (onPath) {
+      first = Math.max(first, resume.getWord(level));
+    }
+    for (int word = first; word < bucket.endWord(pos) && !stopped; word++) {
+      chosenWordIds[level] = dictionary.getWordId(chosenLengths[level], word);
+      chosenWordPositions[level] = word;
+      this.expandWords(level + 1, levels, onPath && word == resume.getWord(level));
+    }
+  }
+
+  /**
+   * Stop the search because the time is over, keeping the signature that was going to be explored.
+   *
+   * @param level the level being explored
+   * @param length the length of the signature that was going to be explored
+   * @param position the position of the signature that was going to be explored
+   */
+  private void stopExploring(int level, int length, int position) {
+    int[] lengths = Arrays.copyOf(chosenLengths, level + 1);
+    int[] positions = Arrays.copyOf(chosenPositions, level + 1);
+    lengths[level] = length;
+    positions[level] = position;
+    cursor = new AnagramCursor(dictionary.getVersion(), lengths, positions, null);
+    stopped = true;
+    timedOut = true;
+  }
+
+  /**
+   * Stop the search because the sink did not accept an anagram, keeping the anagram.
+   *
+   * @param levels the number of words of the anagram
+   */
+  private void stopAtAnagram(int levels) {
+    cursor = new AnagramCursor(dictionary.getVersion(), Arrays.copyOf(chosenLengths, levels),
+        Arrays.copyOf(chosenPositions, levels), Arrays.copyOf(chosenWordPositions, levels));
+    stopped = true;
+  }
+}
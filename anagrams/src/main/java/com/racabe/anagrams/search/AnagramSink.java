@@ -0,0 +1,22 @@
+package com.racabe.anagrams.search;
+
+import com.racabe.anagrams.model.Dictionary;
+
+/**
+ * The Interface AnagramSink, that receives each anagram as soon as the search finds it, as the ids
+ * of its words into the dictionary. The sinks that keep the anagrams, like {@link AnagramList},
+ * keep only the ids, and the ones that need the text of the anagrams are an
+ * {@link AnagramConsumer}.
+ */
+public interface AnagramSink {
+
+  /**
+   * Receive an anagram found, as the ids of its words into the dictionary.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param wordIds the ids of the words, only valid during the call
+   * @param count the number of words
+   * @return true to continue the search, false to stop it
+   */
+  boolean accept(Dictionary dictionary, int[] wordIds, int count);
+}
@@ -0,0 +1,297 @@
+package com.racabe.anagrams.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.racabe.anagrams.model.Dictionary;
+
+/**
+ * The class DistributedAnagramSearch, an {@link AnagramSearch} split by the first word of the
+ * anagrams, as the {@link ParallelAnagramSearch}, and spread across several nodes of the service.
+ * The parts are grouped into consecutive ranges, a few for each peer so a slow range does not
+ * leave the other peers idle, and the ranges are sent to the peers at the same time.
+ *
+ * <p>When a peer fails or does not answer in time, its range is sent to the next peer, and when
+ * all of them have failed, the range is searched by this node. The anagrams of the ranges are
+ * joined in the order of the ranges, so they are the same and in the same order as the ones of the
+ * sequential search. They are joined into an {@link AnagramList}, the words of the peers are found
+ * into this snapshot, which has the same fingerprint, and the ranges are disjoint, so only the
+ * anagrams at their boundaries are compared. When the time is over, the anagrams are returned up
+ * to the first range that could not finish, and the cursor points to where it stopped, as in the
+ * parallel search. The cursors of the peers are moved to the version of this node, the snapshots
+ * have the same fingerprint so the positions are the same.
+ */
+public final class DistributedAnagramSearch {
+
+  /** The snapshot of the dictionary. */
+  private final Dictionary dictionary;
+
+  /** The limits of the search. */
+  private final AnagramQuery query;
+
+  /** The other nodes of the service. */
+  private final List<AnagramPeer> peers;
+
+  /** The executor of the requests to the peers. */
+  private final Executor executor;
+
+  /** The pool where the ranges of the failed peers are searched. */
+  private final ForkJoinPool pool;
+
+  /** The number of ranges of the parts for each peer. */
+  private final int rangesPerPeer;
+
+  /** Whether the search has a deadline. */
+  private final boolean hasDeadline;
+
+  /** The time when the search must stop, as given by {@link System#nanoTime()}. */
+  private final long deadline;
+
+  /** The number of ranges sent again to another peer. */
+  private final AtomicInteger retries = new AtomicInteger();
+
+  /** The number of ranges searched by this node because all the peers failed. */
+  private final AtomicInteger fallbacks = new AtomicInteger();
+
+  /** Whether the search has been stopped because the time was over. */
+  private boolean timedOut;
+
+  /** The cursor where the search stopped, or null if it has finished. */
+  private String cursor;
+
+  /** The number of signatures visited by the split. */
+  private long visited;
+
+  /**
+   * Instantiates a new distributed anagram search. The query must not have a cursor, the ranges
+   * are numbered from the beginning of the search.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the limits of the search
+   * @param peers the other nodes of the service, with the same dictionary
+   * @param executor the executor of the requests to the peers
+   * @param pool the pool where the ranges of the failed peers are searched
+   * @param rangesPerPeer the number of ranges of the parts for each peer
+   */
+  public DistributedAnagramSearch(Dictionary dictionary, AnagramQuery query,
+      List<AnagramPeer> peers, Executor executor, ForkJoinPool pool, int rangesPerPeer) {
+    this.dictionary = dictionary;
+    this.query = query;
+    this.peers = peers;
+    this.executor = executor;
+    this.pool = pool;
+    this.rangesPerPeer = Math.max(1, rangesPerPeer);
+    this.hasDeadline = query.getTimeoutMillis() > 0;
+    this.deadline =
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(query.getTimeoutMillis());
+  }
+
+  /**
+   * Search all the anagrams of some letters, or the anagrams found until the time is over.
+   *
+   * @param signature the signature of the letters
+   * @return the anagrams found, in the same order as the sequential search, kept by the ids of
+   *         their words unless a word of a peer is not into this snapshot
+   */
+  public List<String> search(long[] signature) {
+    AnagramSearch split = new AnagramSearch(dictionary, query);
+    List<int[]> parts = split.split(signature);
+    visited = split.getVisited();
+    if (parts.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    // Consecutive ranges of parts, sent to the peers at the same time
+    int ranges = Math.min(parts.size(), peers.size() * rangesPerPeer);
+    List<CompletableFuture<AnagramPage>> pages = new ArrayList<CompletableFuture<AnagramPage>>();
+    for (int range = 0; range < ranges; range++) {
+      int from = (int) ((long) parts.size() * range / ranges);
+      int to = (int) ((long) parts.size() * (range + 1) / ranges);
+      int firstPeer = range;
+      pages.add(CompletableFuture.supplyAsync(
+          () -> this.searchRange(signature, parts, from, to, firstPeer), executor));
+    }
+
+    // Join the anagrams of the ranges in order, up to the first one that could not finish
+    AnagramList anagrams = new AnagramList(dictionary);
+    List<String> rendered = null;
+    for (CompletableFuture<AnagramPage> future : pages) {
+      AnagramPage page = future.join();
+      List<String> range = page.getAnagrams();
+      List<String> joined = rendered == null ? anagrams : rendered;
+      int first = !range.isEmpty() && !joined.isEmpty()
+          && range.get(0).equals(joined.get(joined.size() - 1)) ? 1 : 0;
+      if (rendered == null && !this.append(anagrams, range, first)) {
+        // A word of a peer is not into this snapshot, so the anagrams are kept as strings
+        rendered = new ArrayList<String>(anagrams);
+      }
+      if (rendered != null) {
+        rendered.addAll(range.subList(first, range.size()));
+      }
+      if (!page.isComplete()) {
+        timedOut = true;
+        cursor = page.getNextCursor() == null ? null
+            : AnagramCursor.decode(page.getNextCursor()).withVersion(dictionary.getVersion())
+                .encode();
+        break;
+      }
+    }
+    return rendered == null ? anagrams.trim() : rendered;
+  }
+
+  /**
+   * Add the anagrams of a range to the anagrams joined, by the ids of their words into this
+   * snapshot. The anagrams of this node are copied, and the ones of the peers are found word by
+   * word, each word once.
+   *
+   * @param anagrams the anagrams joined
+   * @param range the anagrams of the range
+   * @param first the position of the first anagram of the range to add
+   * @return true if they were added, false if a word is not into this snapshot
+   */
+  private boolean append(AnagramList anagrams, List<String> range, int first) {
+    if (range instanceof AnagramList && ((AnagramList) range).getDictionary() == dictionary) {
+      anagrams.append((AnagramList) range, first);
+      return true;
+    }
+
+    // The anagrams are added only when all their words have been found
+    AnagramList found = new AnagramList(dictionary);
+    Map<String, Integer> wordIds = new HashMap<String, Integer>();
+    int[] ids = new int[8];
+    for (String anagram : range.subList(first, range.size())) {
+      String[] words = anagram.split(" ");
+      if (words.length > ids.length) {
+        ids = new int[words.length];
+      }
+      for (int pos = 0; pos < words.length; pos++) {
+        ids[pos] = wordIds.computeIfAbsent(words[pos], dictionary::getWordId);
+        if (ids[pos] < 0) {
+          return false;
+        }
+      }
+      found.accept(dictionary, ids, words.length);
+    }
+    anagrams.append(found, 0);
+    return true;
+  }
+
+  /**
+   * Search a range of the parts into the peers, starting by one of them and trying the next ones
+   * when it fails, or into this node when all of them have failed.
+   *
+   * @param signature the signature of the letters
+   * @param parts the parts of the search
+   * @param from the first part of the range
+   * @param to the end of the range, exclusive
+   * @param firstPeer the peer tried first, the next ones are tried in order
+   * @return the anagrams of the range
+   */
+  private AnagramPage searchRange(long[] signature, List<int[]> parts, int from, int to,
+      int firstPeer) {
+    for (int attempt = 0; attempt < peers.size() && !this.isOver(); attempt++) {
+      if (attempt > 0) {
+        retries.incrementAndGet();
+      }
+      try {
+        return peers.get((firstPeer + attempt) % peers.size()).search(dictionary,
+            this.timeLeft(), from, to, parts.size());
+      } catch (IOException | RuntimeException ex) {
+        // The range is sent to the next peer
+      }
+    }
+
+    // The time is over, so the range is left to be resumed from its first part
+    if (this.isOver()) {
+      int[] first = parts.get(from);
+      return new AnagramPage(Collections.<String>emptyList(), false, true,
+          new AnagramCursor(dictionary.getVersion(), new int[] {first[0]}, new int[] {first[1]},
+              null).encode());
+    }
+
+    fallbacks.incrementAndGet();
+    ParallelAnagramSearch search = new ParallelAnagramSearch(dictionary, this.timeLeft(), pool);
+    AnagramList anagrams = search.search(signature, from, to).trim();
+    return new AnagramPage(anagrams, search.getCursor() == null, search.isTimedOut(),
+        search.getCursor());
+  }
+
+  /**
+   * Method to know if the time of the search is over.
+   *
+   * @return true if the search has a deadline and it has passed
+   */
+  private boolean isOver() {
+    return hasDeadline && System.nanoTime() - deadline > 0;
+  }
+
+  /**
+   * Create a query with the same letters and limits, and the time left to search.
+   *
+   * @return the query
+   */
+  private AnagramQuery timeLeft() {
+    AnagramQuery left = new AnagramQuery(query.getWords())
+        .minWordLength(query.getMinWordLength())
+        .maxWords(query.getMaxWords());
+    if (hasDeadline) {
+      left.timeoutMillis(
+          Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+    }
+    return left;
+  }
+
+  /**
+   * Method to know if the search was stopped because the time was over.
+   *
+   * @return true if the time was over
+   */
+  public boolean isTimedOut() {
+    return timedOut;
+  }
+
+  /**
+   * Gets the cursor to resume the search where it stopped, in the version of this node.
+   *
+   * @return the cursor encoded, or null if the search has finished
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Gets the number of signatures visited by the split, the peers do not tell theirs.
+   *
+   * @return the number of signatures visited
+   */
+  public long getVisited() {
+    return visited;
+  }
+
+  /**
+   * Gets the number of ranges sent again to another peer after a peer failed.
+   *
+   * @return the number of retries
+   */
+  public int getRetries() {
+    return retries.get();
+  }
+
+  /**
+   * Gets the number of ranges searched by this node because all the peers failed.
+   *
+   * @return the number of ranges
+   */
+  public int getFallbacks() {
+    return fallbacks.get();
+  }
+}
@@ -0,0 +1,251 @@
+package com.racabe.anagrams.search;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.racabe.anagrams.model.Dictionary;
+
+/**
+ * The class ParallelAnagramSearch, an {@link AnagramSearch} split by the first word of the anagrams
+ * to use several cores. Each signature that can be the first word is searched by its own fork/join
+ * task, so the idle threads of the pool steal the parts left by the busy ones.
+ *
+ * <p>Each part keeps its anagrams apart, and they are joined in the order of the parts when all
+ * the tasks have finished. So the anagrams are the same and in the same order as the ones of the
+ * sequential search, and the cursor to resume the search is the same too: when the time is over,
+ * the anagrams are returned up to the first part that could not finish, and the cursor points to
+ * it. The anagrams found by the parts after it are discarded, they will be found again when the
+ * search is resumed.
+ *
+ * <p>A range of the parts can be searched alone, so the parts of a search can be spread across
+ * several nodes with the same dictionary, as the {@link DistributedAnagramSearch} does.
+ */
+public final class ParallelAnagramSearch {
+
+  /** The pool where the parts of the search run. */
+  private final ForkJoinPool pool;
+
+  /** The snapshot of the dictionary. */
+  private final Dictionary dictionary;
+
+  /** The search split into parts. */
+  private final AnagramSearch search;
+
+  /** Whether the search has been stopped because the time was over. */
+  private boolean timedOut;
+
+  /** The cursor where the search stopped, or null if it has finished. */
+  private String cursor;
+
+  /** The number of signatures visited by all the parts. */
+  private long visited;
+
+  /** The parts of the search, or null if it has not been split yet. */
+  private List<int[]> parts;
+
+  /**
+   * Instantiates a new parallel anagram search.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the limits of the search and the cursor to resume it from
+   * @param pool the pool where the parts of the search run
+   */
+  public ParallelAnagramSearch(Dictionary dictionary, AnagramQuery query, ForkJoinPool pool) {
+    this.pool = pool;
+    this.dictionary = dictionary;
+    this.search = new AnagramSearch(dictionary, query);
+  }
+
+  /**
+   * Search all the anagrams of some letters, or the anagrams found until the time is over.
+   *
+   * @param signature the signature of the letters
+   * @return the anagrams found, in the same order as the sequential search
+   */
+  public AnagramList search(long[] signature) {
+    return this.search(signature, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Search the anagrams of a range of the parts of the search, in the order of the signatures of
+   * their first word. The anagrams of consecutive ranges, joined in order, are the anagrams of the
+   * whole search.
+   *
+   * @param signature the signature of the letters
+   * @param from the first part of the range
+   * @param to the end of the range, exclusive, it can be after the last part
+   * @return the anagrams found, in the same order as the sequential search
+   */
+  public AnagramList search(long[] signature, int from, int to) {
+    if (from < 0 || to < from) {
+      throw new IllegalArgumentException("The range " + from + ".." + to + " is not valid");
+    }
+    if (parts == null) {
+      this.split(signature);
+    }
+    int end = Math.min(to, parts.size());
+    int start = Math.min(from, end);
+    PartSearch[] searches = new PartSearch[end - start];
+    for (int i = 0; i < searches.length; i++) {
+      searches[i] = new PartSearch(signature, parts.get(start + i));
+    }
+
+    if (searches.length > 0) {
+      pool.invoke(new SearchTask(searches, 0, searches.length));
+    }
+
+    // Join the anagrams of the parts in order, up to the first one that could not finish
+    AnagramList anagrams = new AnagramList(dictionary);
+    visited = search.getVisited();
+    for (PartSearch part : searches) {
+      visited += part.search.getVisited();
+    }
+    for (PartSearch part : searches) {
+      anagrams.append(part.anagrams, 0);
+      if (!part.finished) {
+        timedOut = true;
+        cursor = part.search.getCursor();
+        break;
+      }
+    }
+    return anagrams;
+  }
+
+  /**
+   * Split the search by the signature of the first word of the anagrams, without searching them
+   * yet, so the number of parts can be checked before the search. The search splits itself when
+   * it has not been split before.
+   *
+   * @param signature the signature of the letters
+   * @return the number of parts
+   */
+  public int split(long[] signature) {
+    parts = search.split(signature);
+    return parts.size();
+  }
+
+  /**
+   * Method to know if the search was stopped because the time was over.
+   *
+   * @return true if the time was over
+   */
+  public boolean isTimedOut() {
+    return timedOut;
+  }
+
+  /**
+   * Gets the number of signatures visited by the split and by all the parts, including the parts
+   * whose anagrams were discarded.
+   *
+   * @return the number of signatures visited
+   */
+  public long getVisited() {
+    return visited;
+  }
+
+  /**
+   * Gets the number of parts of the search, the signatures that can be the first word of an
+   * anagram, including the ones out of the range searched.
+   *
+   * @return the number of parts
+   */
+  public int getPartCount() {
+    return parts == null ? 0 : parts.size();
+  }
+
+  /**
+   * Gets the cursor to resume the search where it stopped.
+   *
+   * @return the cursor encoded, or null if the search has finished
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * The class PartSearch, the search of the anagrams whose first word has a signature.
+   */
+  private final class PartSearch {
+
+    /** The signature of the letters. */
+    private final long[] signature;
+
+    /** The length, the position and whether to follow the cursor of the first word. */
+    private final int[] part;
+
+    /** The search of this part. */
+    private final AnagramSearch search;
+
+    /** The anagrams found. */
+    private final AnagramList anagrams = new AnagramList(dictionary);
+
+    /** Whether the search of this part has finished. */
+    private boolean finished;
+
+    /**
+     * Instantiates a new part search.
+     *
+     * @param signature the signature of the letters
+     * @param part the length, the position and whether to follow the cursor of the first word
+     */
+    private PartSearch(long[] signature, int[] part) {
+      this.signature = signature;
+      this.part = part;
+      this.search = ParallelAnagramSearch.this.search.fork(part[2] == 1);
+    }
+
+    /**
+     * Search the anagrams of this part.
+     */
+    private void run() {
+      finished = search.searchSignature(signature, part[0], part[1], part[2] == 1, anagrams);
+    }
+  }
+
+  /**
+   * The class SearchTask, a fork/join task that searches a range of parts, splitting it in halves
+   * until only one part is left.
+   */
+  private static final class SearchTask extends RecursiveAction {
+
+    /** The serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The parts of the search. */
+    private final transient PartSearch[] parts;
+
+    /** The first part of the range. */
+    private final int from;
+
+    /** The end of the range, exclusive. */
+    private final int to;
+
+    /**
+     * Instantiates a new search task.
+     *
+     * @param parts the parts of the search
+     * @param from the first part of the range
+     * @param to the end of the range, exclusive
+     */
+    private SearchTask(PartSearch[] parts, int from, int to) {
+      this.parts = parts;
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * Search the parts of the range.
+     */
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        parts[from].run();
+        return;
+      }
+
+      int middle = (from + to) >>> 1;
+      invokeAll(new SearchTask(parts, from, middle), new SearchTask(parts, middle, to));
+    }
+  }
+}
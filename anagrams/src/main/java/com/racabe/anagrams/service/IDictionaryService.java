@@ -1,9 +1,19 @@
 package com.racabe.anagrams.service;
 
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryDelta;
+import com.racabe.anagrams.search.AnagramConsumer;
+import com.racabe.anagrams.search.AnagramPage;
+import com.racabe.anagrams.search.AnagramQuery;
+
 /**
  * The Interface IDictionaryService.
  */
@@ -12,15 +22,154 @@ public interface IDictionaryService {
    * Parses the dictionary to hastable.
    *
    * @param dictionaryFile the dictionary file
-   * @return the map
+   * @return the dictionary parsed, not added to the registry
+   */
+  Dictionary parseDictionaryToHastableByWordLength(MultipartFile dictionaryFile);
+
+  /**
+   * Load a dictionary into the registry, so it can be queried later by its id without uploading
+   * it again. Loading a dictionary with an id already in use replaces the previous one.
+   *
+   * @param dictionaryId the id of the dictionary, or null to use the name of the file
+   * @param dictionaryFile the dictionary file
+   * @return the id assigned to the dictionary
+   */
+  String loadDictionary(String dictionaryId, MultipartFile dictionaryFile);
+
+  /**
+   * Load a dictionary from the local storage into the registry.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param dictionaryPath the path of the dictionary file
+   * @return the id assigned to the dictionary
+   */
+  String loadDictionary(String dictionaryId, Path dictionaryPath);
+
+  /**
+   * Update a dictionary of the registry, adding and removing some words.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param delta the words added and removed
+   * @return the new snapshot of the dictionary
+   */
+  Dictionary updateDictionary(String dictionaryId, DictionaryDelta delta);
+
+  /**
+   * Update a dictionary of the registry with the changes of a delta file.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param deltaFile the delta file, with a word to add or to remove by line
+   * @return the new snapshot of the dictionary
+   */
+  Dictionary updateDictionary(String dictionaryId, MultipartFile deltaFile);
+
+  /**
+   * Gets the ids of the dictionaries loaded.
+   *
+   * @return the ids of the dictionaries loaded
+   */
+  Set<String> getDictionaryIds();
+
+  /**
+   * Gets a dictionary loaded previously.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @return the current snapshot of the dictionary
+   */
+  Dictionary getDictionary(String dictionaryId);
+
+  /**
+   * Gets a page of anagrams, stopping the search when the limits of the query are reached.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @return the anagrams found and the cursor to get the next ones
    */
-  void parseDictionaryToHastableByWordLength(MultipartFile dictionaryFile);
-  
+  AnagramPage getAnagrams(Dictionary dictionary, AnagramQuery query);
+
+  /**
+   * Gets a page of anagrams without blocking the calling thread while the search runs.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @return the future page, with the anagrams found and the cursor to get the next ones
+   */
+  CompletableFuture<AnagramPage> getAnagramsAsync(Dictionary dictionary, AnagramQuery query);
+
+  /**
+   * Gets the anagrams of a range of the parts of a query without waiting for the search, the part
+   * of a distributed search asked to this node by a coordinator.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @param fingerprint the fingerprint of the dictionary of the coordinator
+   * @param from the first part of the range
+   * @param to the end of the range, exclusive
+   * @param parts the number of parts of the query for the coordinator
+   * @return the future anagrams of the range and the cursor where the search stopped
+   */
+  CompletableFuture<AnagramPage> getAnagramPartitionAsync(Dictionary dictionary,
+      AnagramQuery query, String fingerprint, int from, int to, int parts);
+
+  /**
+   * Search the anagrams, passing each one to a consumer as soon as it is found and stopping the
+   * search when the limits of the query are reached.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @param consumer the consumer of the anagrams found
+   * @return a page without anagrams, with whether the search has finished or timed out and the
+   *         cursor to resume it
+   */
+  AnagramPage streamAnagrams(Dictionary dictionary, AnagramQuery query, AnagramConsumer consumer);
+
+  /**
+   * Gets the pages of anagrams of a batch of queries without waiting for the searches. The queries
+   * with the same letters and limits are searched only once.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param queries the queries
+   * @return the future page of anagrams of each query, in the same order
+   */
+  CompletableFuture<List<AnagramPage>> getAnagramsAsync(Dictionary dictionary,
+      List<AnagramQuery> queries);
+
+  /**
+   * Gets the words of a dictionary with the same letters as a word.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param word the word
+   * @return the words with the same letters, or an empty list
+   */
+  List<String> getWordAnagrams(Dictionary dictionary, String word);
+
+  /**
+   * Gets the words of a dictionary that can be spelled with some letters, without using all of
+   * them.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param letters the letters available, with a "?" or "*" for each blank tile
+   * @param minWordLength the minimum length of the words
+   * @param maxResults the maximum number of words, 0 for no limit
+   * @return the words, from the longest ones to the shortest ones
+   */
+  List<String> getSubAnagrams(Dictionary dictionary, String letters, int minWordLength,
+      int maxResults);
+
+  /**
+   * Group a list of words into classes of anagrams, the words with the same letters.
+   *
+   * @param words the words
+   * @param minGroupSize the minimum number of words of a class to return it
+   * @return the classes of anagrams
+   */
+  List<List<String>> groupAnagrams(List<String> words, int minGroupSize);
+
   /**
-   * Gets the anagrams.
+   * Gets the statistics of the cache of anagrams.
    *
-   * @param words the word or phrase used to search anagrams
-   * @return a lis of the anagrams found
+   * @return the hits, misses and evictions of the cache and the number of pages and anagrams kept,
+   *         or an empty map if the cache is disabled
    */
-  Set<String> getAnagrams(String words);
+  Map<String, Object> getCacheStatistics();
 }
@@ -1,25 +1,67 @@
 package com.racabe.anagrams.service.impl;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Scanner;
 import java.util.Set;
-import java.util.stream.IntStream;
-
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.racabe.anagrams.cluster.AnagramCluster;
 import com.racabe.anagrams.exception.DictionaryException;
+import com.racabe.anagrams.exception.DictionaryMismatchException;
+import com.racabe.anagrams.exception.DictionaryNotFoundException;
+import com.racabe.anagrams.exception.InvalidBatchException;
+import com.racabe.anagrams.exception.InvalidLettersException;
+import com.racabe.anagrams.exception.InvalidPartitionException;
+import com.racabe.anagrams.exception.SearchRejectedException;
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryBuilder;
+import com.racabe.anagrams.model.DictionaryDelta;
+import com.racabe.anagrams.model.DictionaryFile;
+import com.racabe.anagrams.model.DictionaryReader;
+import com.racabe.anagrams.model.WordBucket;
+import com.racabe.anagrams.search.AnagramCacheKey;
+import com.racabe.anagrams.search.AnagramConsumer;
+import com.racabe.anagrams.search.AnagramList;
+import com.racabe.anagrams.search.AnagramPage;
+import com.racabe.anagrams.search.AnagramQuery;
+import com.racabe.anagrams.search.AnagramSearch;
+import com.racabe.anagrams.search.AnagramSink;
+import com.racabe.anagrams.search.DistributedAnagramSearch;
+import com.racabe.anagrams.search.ParallelAnagramSearch;
 import com.racabe.anagrams.service.IDictionaryService;
-import com.racabe.anagrams.utils.Utils;
+import com.racabe.anagrams.utils.LetterSignature;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 
 /**
  * The class DictionaryService, where can find the methods to load the dictionary and to find the
@@ -28,20 +70,314 @@ import com.racabe.anagrams.utils.Utils;
 @Service
 public class DictionaryService implements IDictionaryService {
 
-  /** Set the minimum length for a valir word into the possible anagram. */
-  private static final int MIN_LENGTH_ANAGRAM = 3;
+  /** The id given to the dictionaries uploaded to search them only once. */
+  private static final String UPLOADED_DICTIONARY_ID = "upload";
+
+  /** The id given to the lists of words grouped into classes of anagrams. */
+  private static final String GROUPED_DICTIONARY_ID = "groups";
+
+  /** The name of the timer of the dictionaries loaded. */
+  private static final String LOAD_METRIC = "anagrams.dictionary.load";
+
+  /** The name of the timer of the searches, and the prefix of their counters. */
+  private static final String SEARCH_METRIC = "anagrams.search";
+
+  /** The name of the metrics of the distributed searches. */
+  private static final String CLUSTER_METRIC = "anagrams.cluster";
+
+  /**
+   * The dictionaries loaded, by id, to query them without uploading them on every request. Each
+   * value is an immutable snapshot, so replacing it publishes a reload atomically while the
+   * searches in progress keep using the snapshot they started with.
+   */
+  private final Map<String, Dictionary> dictionaries = new ConcurrentHashMap<String, Dictionary>();
+
+  /** The last version given to a dictionary snapshot. */
+  private final AtomicLong lastVersion = new AtomicLong();
+
+  /** The path of a dictionary in the local storage to load when the service starts. */
+  @Value("${anagrams.dictionary.preload.path:}")
+  private String preloadPath;
+
+  /** The id given to the dictionary loaded when the service starts. */
+  @Value("${anagrams.dictionary.preload.id:default}")
+  private String preloadId;
+
+  /** The maximum time of a search with limits, in milliseconds, 0 for no limit. */
+  @Value("${anagrams.search.timeout:10000}")
+  private long searchTimeout;
+
+  /**
+   * The minimum number of letters of a query to search it in parallel, 0 to search always in the
+   * calling thread. The shorter queries finish in a few milliseconds, so splitting them only adds
+   * overhead.
+   */
+  @Value("${anagrams.search.parallel-threshold:14}")
+  private int parallelThreshold;
+
+  /** The pool of the parallel searches, or null to search always in the calling thread. */
+  @Autowired(required = false)
+  private ForkJoinPool searchPool;
+
+  /** The minimum number of letters of a query to spread it across the peers, 0 to disable it. */
+  @Value("${anagrams.cluster.threshold:18}")
+  private int clusterThreshold;
+
+  /** The number of ranges of the parts of a distributed search for each peer. */
+  @Value("${anagrams.cluster.ranges-per-peer:4}")
+  private int clusterRangesPerPeer;
+
+  /** The peers of the distributed searches, or null. */
+  @Autowired(required = false)
+  private AnagramCluster anagramCluster;
+
+  /** The maximum number of letters of a query of sub-anagrams, 0 for no limit. */
+  @Value("${anagrams.subanagrams.max-letters:32}")
+  private int subAnagramsMaxLetters;
+
+  /** The maximum number of blank tiles of a query of sub-anagrams, 0 for no limit. */
+  @Value("${anagrams.subanagrams.max-blanks:2}")
+  private int subAnagramsMaxBlanks;
+
+  /** The maximum number of phrases of a batch, 0 for no limit. */
+  @Value("${anagrams.batch.max-phrases:10000}")
+  private int batchMaxPhrases;
+
+  /** The maximum number of phrases of a batch searched at the same time. */
+  @Value("${anagrams.batch.concurrency:2}")
+  private int batchConcurrency;
 
-  /** The dictionary parsed by word length and hashcode. */
-  private Map<Integer, Map<Long, List<String>>> dictionaryParsed =
-      new HashMap<Integer, Map<Long, List<String>>>();
+  /**
+   * The executor of the phrases of the batches, or null to search them in the calling thread. The
+   * phrases of a batch are not split across the cores, so they do not take the pool of the parallel
+   * searches from the interactive requests.
+   */
+  @Autowired(required = false)
+  @Qualifier("batchTaskExecutor")
+  private Executor batchTaskExecutor;
+
+  /**
+   * The executor of the searches of the requests, or null to search them in the calling thread. It
+   * is bounded, so when it is full the searches are rejected instead of queued without limit.
+   */
+  @Autowired(required = false)
+  @Qualifier("searchTaskExecutor")
+  private Executor searchTaskExecutor;
+
+  /** The cache of the pages of anagrams, or null to search every query. */
+  @Autowired(required = false)
+  private Cache<AnagramCacheKey, AnagramPage> anagramCache;
+
+  /**
+   * The registry of the metrics of each stage, exported by the actuator. Without a registry the
+   * metrics are recorded into an empty composite, which discards them.
+   */
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry = new CompositeMeterRegistry();
 
   /**
    * Parses the dictionary to hastable.
    *
    * @param dictionaryFile the dictionary file
-   * @return the map
+   * @return the dictionary parsed, not added to the registry
+   */
+  public Dictionary parseDictionaryToHastableByWordLength(MultipartFile dictionaryFile) {
+    return this.parseDictionary(UPLOADED_DICTIONARY_ID, dictionaryFile);
+  }
+
+  /**
+   * Load a dictionary into the registry, so it can be queried later by its id without uploading
+   * it again. Loading a dictionary with an id already in use replaces the previous one.
+   *
+   * @param dictionaryId the id of the dictionary, or null to use the name of the file
+   * @param dictionaryFile the dictionary file
+   * @return the id assigned to the dictionary
+   */
+  public String loadDictionary(String dictionaryId, MultipartFile dictionaryFile) {
+    String id = StringUtils.hasText(dictionaryId) ? dictionaryId
+        : StringUtils.stripFilenameExtension(
+            StringUtils.cleanPath(dictionaryFile.getOriginalFilename()));
+    this.register(id, this.parseDictionary(id, dictionaryFile));
+    return id;
+  }
+
+  /**
+   * Load a dictionary from the local storage into the registry. The file can be a list of words
+   * or a dictionary compiled with {@link com.racabe.anagrams.DictionaryCompiler}.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param dictionaryPath the path of the dictionary file
+   * @return the id assigned to the dictionary
+   */
+  public String loadDictionary(String dictionaryId, Path dictionaryPath) {
+    try {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      if (DictionaryFile.isCompiled(dictionaryPath)) {
+        // A compiled dictionary is searched from the file mapped, without parsing it
+        Dictionary dictionary =
+            DictionaryFile.map(dictionaryPath, dictionaryId, lastVersion.incrementAndGet());
+        sample.stop(meterRegistry.timer(LOAD_METRIC, "format", "compiled"));
+        this.register(dictionaryId, dictionary);
+      } else {
+        // The file is mapped into memory instead of read through a stream
+        Dictionary dictionary = new DictionaryReader(new DictionaryBuilder())
+            .read(dictionaryPath).build(dictionaryId, lastVersion.incrementAndGet());
+        sample.stop(meterRegistry.timer(LOAD_METRIC, "format", "words"));
+        this.register(dictionaryId, dictionary);
+      }
+    } catch (IOException ex) {
+      throw new DictionaryException(
+          "Could not parse dictionary " + dictionaryPath + ". Please try again!", ex);
+    }
+    return dictionaryId;
+  }
+
+  /**
+   * Update a dictionary of the registry, adding and removing some words. The new snapshot shares
+   * with the current one the words of the lengths without changes, and the pages of anagrams
+   * that can not change are kept into the cache.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param delta the words added and removed
+   * @return the new snapshot of the dictionary
+   */
+  public Dictionary updateDictionary(String dictionaryId, DictionaryDelta delta) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    Dictionary[] replaced = new Dictionary[1];
+
+    // The updates of a dictionary are applied one after the other, so none of them is lost
+    Dictionary updated = dictionaries.compute(dictionaryId, (id, current) -> {
+      if (current == null) {
+        throw new DictionaryNotFoundException(id);
+      }
+      replaced[0] = current;
+      return delta.isEmpty() ? current : delta.applyTo(current, lastVersion.incrementAndGet());
+    });
+    sample.stop(meterRegistry.timer(LOAD_METRIC, "format", "delta"));
+
+    if (updated != replaced[0] && anagramCache != null) {
+      this.carryOverCache(replaced[0], updated, delta);
+    }
+    return updated;
+  }
+
+  /**
+   * Update a dictionary of the registry with the changes of a delta file.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param deltaFile the delta file, with a word to add or to remove by line
+   * @return the new snapshot of the dictionary
+   */
+  public Dictionary updateDictionary(String dictionaryId, MultipartFile deltaFile) {
+    try (InputStream stream = deltaFile.getInputStream()) {
+      return this.updateDictionary(dictionaryId, new DictionaryDelta().read(stream));
+    } catch (IOException ex) {
+      throw new DictionaryException("Could not parse the changes of dictionary " + dictionaryId
+          + ". Please try again!", ex);
+    }
+  }
+
+  /**
+   * Move the pages of anagrams of a snapshot that can not change with a delta to the snapshot that
+   * replaces it, evicting the other ones. Only the complete pages without cursor are kept, as the
+   * cursors belong to a version of the dictionary. The anagrams kept by the ids of their words are
+   * bound to the new snapshot, so the cache does not keep the old one alive.
+   *
+   * @param replaced the snapshot replaced
+   * @param updated the new snapshot
+   * @param delta the words added and removed
+   */
+  private void carryOverCache(Dictionary replaced, Dictionary updated, DictionaryDelta delta) {
+    Map<AnagramCacheKey, AnagramPage> kept = new HashMap<AnagramCacheKey, AnagramPage>();
+    anagramCache.asMap().entrySet().removeIf(entry -> {
+      AnagramCacheKey key = entry.getKey();
+      if (key.getVersion() != replaced.getVersion()) {
+        return false;
+      }
+      if (key.getCursor() == null && entry.getValue().getNextCursor() == null
+          && !delta.changes(key.getSignature(), 0)) {
+        kept.put(key.withVersion(updated.getVersion()), this.rebind(entry.getValue(), updated));
+      }
+      return true;
+    });
+    anagramCache.putAll(kept);
+  }
+
+  /**
+   * Bind a page of anagrams to another snapshot of its dictionary.
+   *
+   * @param page the page of anagrams
+   * @param dictionary the other snapshot, with all the words of the anagrams
+   * @return the page with the anagrams bound to the snapshot, or the same page if its anagrams are
+   *         rendered as strings
+   */
+  private AnagramPage rebind(AnagramPage page, Dictionary dictionary) {
+    if (!(page.getAnagrams() instanceof AnagramList)) {
+      return page;
+    }
+    return new AnagramPage(((AnagramList) page.getAnagrams()).rebind(dictionary),
+        page.isComplete(), page.isTimedOut(), page.getNextCursor());
+  }
+
+  /**
+   * Publish a snapshot of a dictionary into the registry, evicting from the cache the anagrams of
+   * the snapshot replaced.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param dictionary the snapshot of the dictionary
+   */
+  private void register(String dictionaryId, Dictionary dictionary) {
+    Dictionary replaced = dictionaries.put(dictionaryId, dictionary);
+
+    // The keys have the version, so the old entries would not be used anyway, but they would keep
+    // their memory until they expire
+    if (replaced != null && anagramCache != null) {
+      anagramCache.asMap().keySet().removeIf(key -> key.getVersion() == replaced.getVersion());
+    }
+  }
+
+  /**
+   * Load the dictionary configured in the application properties, if any, when the service
+   * starts.
+   */
+  @PostConstruct
+  public void preloadDictionary() {
+    if (StringUtils.hasText(preloadPath)) {
+      this.loadDictionary(preloadId, Paths.get(preloadPath));
+    }
+  }
+
+  /**
+   * Gets the ids of the dictionaries loaded.
+   *
+   * @return the ids of the dictionaries loaded
+   */
+  public Set<String> getDictionaryIds() {
+    return new TreeSet<String>(dictionaries.keySet());
+  }
+
+  /**
+   * Gets a dictionary loaded previously.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @return the current snapshot of the dictionary
+   */
+  public Dictionary getDictionary(String dictionaryId) {
+    Dictionary dictionary = dictionaries.get(dictionaryId);
+    if (dictionary == null) {
+      throw new DictionaryNotFoundException(dictionaryId);
+    }
+    return dictionary;
+  }
+
+  /**
+   * Parses an uploaded dictionary, checking its name first.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param dictionaryFile the dictionary file
+   * @return the dictionary parsed
    */
-  public void parseDictionaryToHastableByWordLength(MultipartFile dictionaryFile) {
+  private Dictionary parseDictionary(String dictionaryId, MultipartFile dictionaryFile) {
     // Normalize file name
     String dictionaryName = StringUtils.cleanPath(dictionaryFile.getOriginalFilename());
 
@@ -52,38 +388,8 @@ public class DictionaryService implements IDictionaryService {
             "Sorry! Dictionary name contains invalid path sequence " + dictionaryName);
       }
 
-      // Using try-with-resources statement contains two declarations that are separated by a
-      // semicolon. When the block of code that directly follows it terminates, either normally or
-      // because of an exception, the close methods of the fileReader and scanner objects are
-      // automatically called in this order.
-      dictionaryParsed = new HashMap<Integer, Map<Long, List<String>>>();
-      try (ByteArrayInputStream stream = new ByteArrayInputStream(dictionaryFile.getBytes());
-          Scanner scanner = new Scanner(stream)) {
-        while (scanner.hasNext()) {
-          String word = scanner.next();
-
-          // Only accept words of a concrete length
-          if (word.length() >= MIN_LENGTH_ANAGRAM) {
-            // Create the hash code for this word
-            Long numberKey = Utils.wordToHashNumber(word);
-            Integer lengthKey = word.length();
-
-            Map<Long, List<String>> candidatesByLength = dictionaryParsed.get(lengthKey);
-
-            if (candidatesByLength == null) {
-              candidatesByLength = new HashMap<Long, List<String>>();
-            }
-
-            List<String> candidates = candidatesByLength.get(numberKey);
-            if (candidates == null) {
-              candidates = new ArrayList<String>();
-            }
-
-            candidates.add(word);
-            candidatesByLength.put(numberKey, candidates);
-            dictionaryParsed.put(lengthKey, candidatesByLength);
-          }
-        }
+      try (InputStream stream = dictionaryFile.getInputStream()) {
+        return this.parseDictionary(dictionaryId, stream);
       }
     } catch (IOException ex) {
       throw new DictionaryException(
@@ -92,107 +398,591 @@ public class DictionaryService implements IDictionaryService {
   }
 
   /**
-   * Gets the anagrams.
+   * Parses the words of a dictionary, classifying them by length and signature. The words are
+   * collected into a builder private to this method, and published as a new snapshot only when the
+   * whole stream has been read.
    *
-   * @param words the word or phrase used to search anagrams
-   * @return a lis of the anagrams found
-   */
-  public Set<String> getAnagrams(String words) {
-    // When the processing is finished, it will contain the list of anagrams found
-    Set<String> anagrams = new HashSet<String>();
-
-    // Special characters should be ignored
-    String inputWithoutSpaces = words.replaceAll("[^A-Za-z]", "");
-
-    // Configure initial state
-    int lengthInputWord = inputWithoutSpaces.length();
-
-    // Calculate the hashcode of the input word
-    Long inputWordHash = Utils.wordToHashNumber(inputWithoutSpaces);
-
-    // Calculate the maximum word that can have an anagram
-    int maxNumAnagramsByLine = lengthInputWord / MIN_LENGTH_ANAGRAM;
-
-    // Search all combinations of anagrams for the input word for each possible number of words
-    for (int numAnagrams = 1; numAnagrams <= maxNumAnagramsByLine; numAnagrams++) {
-      // Calculate the max length for a word into the anagram
-      int maxLength = lengthInputWord - ((numAnagrams - 1) * MIN_LENGTH_ANAGRAM);
-
-      // Create a sequence from the minimun length of a word to maximun length, and generate all
-      // possible cominations of this lenghts by number of words into the anagrams (We discard a
-      // combination if the sum of the lengths is greater than the size of the input word)
-      Integer[] lengths = IntStream.rangeClosed(MIN_LENGTH_ANAGRAM, maxLength).boxed()
-          .toArray(size -> new Integer[size]);
-      Set<List<Integer>> validLengthCombinations =
-          Utils.generateLengths(lengths, numAnagrams, lengthInputWord);
-
-      // For each combination of lengths, search the possible anagrams
-      if (validLengthCombinations != null && !validLengthCombinations.isEmpty()) {
-        Iterator<List<Integer>> itValidLengthCombinations = validLengthCombinations.iterator();
-        while (itValidLengthCombinations.hasNext()) {
-          List<Integer> lengthCombinations = itValidLengthCombinations.next();
-
-          if (lengthCombinations != null && !lengthCombinations.isEmpty()) {
-            String[][] storeAnagrams = new String[lengthCombinations.size()][];
-            this.getAnagramsByLength(lengthCombinations.stream().toArray(size -> new Integer[size]), 0,
-                inputWordHash, storeAnagrams, anagrams);
-          }
-        }
+   * @param dictionaryId the id of the dictionary
+   * @param stream the stream with the words of the dictionary
+   * @return the dictionary parsed
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private Dictionary parseDictionary(String dictionaryId, InputStream stream) throws IOException {
+    // All the words are indexed, the minimum length of the words is chosen by each search
+    Timer.Sample sample = Timer.start(meterRegistry);
+    Dictionary dictionary = new DictionaryReader(new DictionaryBuilder()).read(stream)
+        .build(dictionaryId, lastVersion.incrementAndGet());
+    sample.stop(meterRegistry.timer(LOAD_METRIC, "format", "upload"));
+    return dictionary;
+  }
+
+  /**
+   * Gets a page of anagrams, stopping the search when the limits of the query are reached. The
+   * time of the search is limited to the configured timeout, even if the query asks for more.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @return the anagrams found and the cursor to get the next ones
+   */
+  public AnagramPage getAnagrams(Dictionary dictionary, AnagramQuery query) {
+    return this.getAnagrams(dictionary, query, true);
+  }
+
+  /**
+   * Gets the pages of anagrams of a batch of queries without waiting for the searches. The queries
+   * with the same letters and limits are searched only once, and the searches run in the executor
+   * of the batches, only a few of them of each batch at the same time, so the threads of the
+   * requests never search and a big batch does not fill the queue shared by all the batches. When
+   * the queue is full, the batch is rejected instead of waiting.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param queries the queries
+   * @return the future page of anagrams of each query, in the same order
+   * @throws InvalidBatchException if the batch has too many queries
+   */
+  public CompletableFuture<List<AnagramPage>> getAnagramsAsync(Dictionary dictionary,
+      List<AnagramQuery> queries) {
+    if (batchMaxPhrases > 0 && queries.size() > batchMaxPhrases) {
+      throw new InvalidBatchException(
+          "Sorry! A batch can not have more than " + batchMaxPhrases + " phrases");
+    }
+
+    // Search each different query once
+    Map<AnagramCacheKey, Integer> positions = new HashMap<AnagramCacheKey, Integer>();
+    List<AnagramQuery> searches = new ArrayList<AnagramQuery>();
+    int[] searchOfQuery = new int[queries.size()];
+    for (int pos = 0; pos < queries.size(); pos++) {
+      AnagramQuery query = queries.get(pos);
+      AnagramCacheKey key =
+          new AnagramCacheKey(dictionary, this.toSignature(query.getWords()), query);
+      searchOfQuery[pos] = positions.computeIfAbsent(key, sameQuery -> {
+        searches.add(query);
+        return searches.size() - 1;
+      });
+    }
+
+    return new BatchSearch(dictionary, searches).start().thenApply(pages -> {
+      List<AnagramPage> anagrams = new ArrayList<AnagramPage>(queries.size());
+      for (int search : searchOfQuery) {
+        anagrams.add(pages.get(search));
       }
+      return anagrams;
+    });
+  }
+
+  /**
+   * Gets a page of anagrams from the cache or searching it.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @param parallel whether the search can be split across the cores
+   * @return the anagrams found and the cursor to get the next ones
+   */
+  private AnagramPage getAnagrams(Dictionary dictionary, AnagramQuery query, boolean parallel) {
+    long[] signature = this.toSignature(query.getWords());
+    AnagramCacheKey key = this.cacheKey(dictionary, signature, query);
+
+    AnagramPage anagrams = key == null ? null : anagramCache.getIfPresent(key);
+    if (anagrams == null) {
+      anagrams = this.searchAndCache(dictionary, signature, query, parallel, key);
+    }
+    return anagrams;
+  }
+
+  /**
+   * Gets a page of anagrams without waiting for the search. The pages into the cache are returned
+   * at once, and the searches run in the executor of the searches, so the threads of the requests
+   * are not blocked by a long search. When the queue of the executor is full, the search is
+   * rejected instead of waiting.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @return the future page, with the anagrams found and the cursor to get the next ones
+   * @throws SearchRejectedException if the queue of the searches is full
+   */
+  public CompletableFuture<AnagramPage> getAnagramsAsync(Dictionary dictionary,
+      AnagramQuery query) {
+    long[] signature = this.toSignature(query.getWords());
+    AnagramCacheKey key = this.cacheKey(dictionary, signature, query);
+
+    AnagramPage anagrams = key == null ? null : anagramCache.getIfPresent(key);
+    if (anagrams != null) {
+      return CompletableFuture.completedFuture(anagrams);
+    }
+    return this.supplySearch(() -> this.searchAndCache(dictionary, signature, query, true, key));
+  }
+
+  /**
+   * Run a search in the executor of the searches, or in the calling thread if there is no executor.
+   *
+   * @param <T> the type of the result of the search
+   * @param search the search
+   * @return the future result of the search
+   * @throws SearchRejectedException if the queue of the searches is full
+   */
+  private <T> CompletableFuture<T> supplySearch(Supplier<T> search) {
+    if (searchTaskExecutor == null) {
+      return CompletableFuture.completedFuture(search.get());
+    }
+
+    try {
+      return CompletableFuture.supplyAsync(search, searchTaskExecutor);
+    } catch (RejectedExecutionException ex) {
+      meterRegistry.counter(SEARCH_METRIC + ".rejected").increment();
+      throw new SearchRejectedException(ex);
+    }
+  }
+
+  /**
+   * Gets the key of a query into the cache.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param signature the signature of the letters
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @return the key, or null if the query is not cached
+   */
+  private AnagramCacheKey cacheKey(Dictionary dictionary, long[] signature, AnagramQuery query) {
+    // Only the dictionaries of the registry are cached, an uploaded one is searched only once
+    if (anagramCache == null || dictionaries.get(dictionary.getId()) != dictionary) {
+      return null;
     }
+    return new AnagramCacheKey(dictionary, signature, query);
+  }
+
+  /**
+   * Search a page of anagrams and keep it into the cache.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param signature the signature of the letters
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @param parallel whether the search can be split across the cores
+   * @param key the key of the query into the cache, or null if it is not cached
+   * @return the anagrams found and the cursor to get the next ones
+   */
+  private AnagramPage searchAndCache(Dictionary dictionary, long[] signature, AnagramQuery query,
+      boolean parallel, AnagramCacheKey key) {
+    AnagramPage anagrams = this.searchAnagrams(dictionary, signature, query, parallel);
 
+    // A page stopped by the time depends on the load of the server, so it is not kept
+    if (key != null && !anagrams.isTimedOut()) {
+      anagramCache.put(key, anagrams);
+    }
     return anagrams;
+  }
+
+  /**
+   * Search a page of anagrams.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param signature the signature of the letters
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @param parallel whether the search can be split across the cores
+   * @return the anagrams found and the cursor to get the next ones
+   */
+  private AnagramPage searchAnagrams(Dictionary dictionary, long[] signature, AnagramQuery query,
+      boolean parallel) {
+    this.limitTimeout(query);
+    long startTime = System.nanoTime();
+
+    // The heaviest queries of the dictionaries of the registry are spread across the peers, which
+    // have the same dictionaries loaded with the same id
+    if (parallel && anagramCluster != null && !anagramCluster.isEmpty() && clusterThreshold > 0
+        && query.getMaxResults() == 0 && query.getCursor() == null
+        && dictionaries.get(dictionary.getId()) == dictionary
+        && LetterSignature.length(signature, 0) >= clusterThreshold) {
+      DistributedAnagramSearch search = new DistributedAnagramSearch(dictionary, query,
+          anagramCluster.getPeers(), anagramCluster.getExecutor(), this.getSearchPool(),
+          clusterRangesPerPeer);
+      List<String> anagrams = search.search(signature);
+      meterRegistry.counter(CLUSTER_METRIC + ".retries").increment(search.getRetries());
+      meterRegistry.counter(CLUSTER_METRIC + ".fallbacks").increment(search.getFallbacks());
+      this.recordSearch("distributed", startTime, search.isTimedOut(), search.getVisited(),
+          anagrams.size());
+      return new AnagramPage(anagrams, search.getCursor() == null, search.isTimedOut(),
+          search.getCursor());
+    }
+
+    // The heavy queries without a maximum of anagrams are split across the cores
+    if (parallel && searchPool != null && parallelThreshold > 0 && query.getMaxResults() == 0
+        && LetterSignature.length(signature, 0) >= parallelThreshold) {
+      ParallelAnagramSearch search = new ParallelAnagramSearch(dictionary, query, searchPool);
+      AnagramList anagrams = search.search(signature).trim();
+      this.recordSearch("parallel", startTime, search.isTimedOut(), search.getVisited(),
+          anagrams.size());
+      return new AnagramPage(anagrams, search.getCursor() == null, search.isTimedOut(),
+          search.getCursor());
+    }
 
+    // The anagrams are kept by the ids of their words, and rendered when the page is written
+    AnagramList anagrams = new AnagramList(dictionary);
+    AnagramSearch search = new AnagramSearch(dictionary, query);
+
+    boolean complete = search.search(signature, this.limit(query, anagrams));
+    anagrams.trim();
+    this.recordSearch("page", startTime, search.isTimedOut(), search.getVisited(),
+        anagrams.size());
+
+    return new AnagramPage(anagrams, complete, search.isTimedOut(), search.getCursor());
   }
 
   /**
-   * Gets the anagrams by length.
+   * Gets the anagrams of a range of the parts of a query without waiting for the search, the part
+   * of a distributed search asked to this node by a coordinator. The range is searched across the
+   * cores from the executor of the searches, and it is rejected if the dictionary of this node has
+   * other words than the one of the coordinator, or if the query is split in another way. When the
+   * queue of the executor is full, the range is rejected at once, so the coordinator sends it to
+   * the next peer.
    *
-   * @param lengthCombinations List of lengths for the different words that will form an anagram of
-   *        the given word
-   * @param currentLengthPos Current position in the list to get a length
-   * @param inputWordHash Current hash code to check if a word into the dictionary is or not valid
-   * @param storeAnagrams Store the list of word for each length to finally form the list of
-   *        anagrams
-   * @param anagramsFound List of anagrams found in the process.
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @param fingerprint the fingerprint of the dictionary of the coordinator
+   * @param from the first part of the range
+   * @param to the end of the range, exclusive
+   * @param parts the number of parts of the query for the coordinator
+   * @return the future anagrams of the range and the cursor where the search stopped
+   * @throws InvalidPartitionException if the range is not a range of parts
+   * @throws DictionaryMismatchException if the dictionaries are not the same
+   * @throws SearchRejectedException if the queue of the searches is full
    */
-  private void getAnagramsByLength(Integer[] lengthCombinations, int currentLengthPos,
-      Long inputWordHash, String[][] storeAnagrams, Set<String> anagramsFound) {
+  public CompletableFuture<AnagramPage> getAnagramPartitionAsync(Dictionary dictionary,
+      AnagramQuery query, String fingerprint, int from, int to, int parts) {
+    if (from < 0 || to < from || to > parts) {
+      throw new InvalidPartitionException("Sorry! The range " + from + ".." + to
+          + " is not a range of " + parts + " parts");
+    }
+    if (!dictionary.getFingerprint().equals(fingerprint)) {
+      throw new DictionaryMismatchException("Sorry! The dictionary " + dictionary.getId()
+          + " has the fingerprint " + dictionary.getFingerprint() + " instead of " + fingerprint);
+    }
+    return this.supplySearch(() -> this.searchPartition(dictionary, query, from, to, parts));
+  }
 
-    // Condition to break the recursion and form all combinations of word by length to get each
-    // anagram
-    if (currentLengthPos == lengthCombinations.length) {
-      anagramsFound.addAll(Utils.cartesianProductString(storeAnagrams));
-      return;
+  /**
+   * Search the anagrams of a range of the parts of a query.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @param from the first part of the range
+   * @param to the end of the range, exclusive
+   * @param parts the number of parts of the query for the coordinator
+   * @return the anagrams of the range and the cursor where the search stopped
+   * @throws DictionaryMismatchException if the query is split in another way
+   */
+  private AnagramPage searchPartition(Dictionary dictionary, AnagramQuery query, int from, int to,
+      int parts) {
+    this.limitTimeout(query);
+    long startTime = System.nanoTime();
+
+    // The query is split before searching, so a query split in another way is rejected at once
+    long[] signature = this.toSignature(query.getWords());
+    ParallelAnagramSearch search =
+        new ParallelAnagramSearch(dictionary, query, this.getSearchPool());
+    int partCount = search.split(signature);
+    if (partCount != parts) {
+      throw new DictionaryMismatchException(
+          "Sorry! The query has " + partCount + " parts instead of " + parts);
     }
+    AnagramList anagrams = search.search(signature, from, to).trim();
+    this.recordSearch("partition", startTime, search.isTimedOut(), search.getVisited(),
+        anagrams.size());
+    return new AnagramPage(anagrams, search.getCursor() == null, search.isTimedOut(),
+        search.getCursor());
+  }
 
-    // Get the actual length of the possible word to form an anagram
-    Integer currentLength = lengthCombinations[currentLengthPos];
+  /**
+   * Search the anagrams, passing each one to a consumer as soon as it is found and stopping the
+   * search when the limits of the query are reached.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   * @param consumer the consumer of the anagrams found
+   * @return a page without anagrams, with whether the search has finished or timed out and the
+   *         cursor to resume it
+   */
+  public AnagramPage streamAnagrams(Dictionary dictionary, AnagramQuery query,
+      AnagramConsumer consumer) {
+    this.limitTimeout(query);
+    long startTime = System.nanoTime();
+
+    // The time of a stream includes the time to write the anagrams to the client
+    AnagramSearch search = new AnagramSearch(dictionary, query);
+    boolean complete =
+        search.search(this.toSignature(query.getWords()), this.limit(query, consumer));
+    this.recordSearch("stream", startTime, search.isTimedOut(), search.getVisited(),
+        search.getFound());
+    return new AnagramPage(Collections.<String>emptyList(), complete, search.isTimedOut(),
+        search.getCursor());
+  }
 
-    // Get the possible candidates from the dictionary by length
-    Map<Long, List<String>> candidatesByLength = dictionaryParsed.get(currentLength);
-    if (candidatesByLength != null && !candidatesByLength.isEmpty()) {
-      Iterator<Entry<Long, List<String>>> itCandidatesByLength =
-          candidatesByLength.entrySet().iterator();
-      while (itCandidatesByLength.hasNext()) {
-        Entry<Long, List<String>> entryCandidates = itCandidatesByLength.next();
-        Long key = entryCandidates.getKey();
+  /**
+   * Gets the words of a dictionary with the same letters as a word. The signature of the letters is
+   * found into the bucket of its length by a binary search, without searching the anagrams of
+   * several words.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param word the word
+   * @return the words with the same letters, including the word itself if it is into the
+   *         dictionary, or an empty list
+   */
+  public List<String> getWordAnagrams(Dictionary dictionary, String word) {
+    long[] signature = this.toSignature(word);
+    WordBucket bucket = dictionary.getCandidatesByLength(LetterSignature.length(signature, 0));
+    int position = bucket == null ? -1 : bucket.indexOf(signature);
+    if (position < 0) {
+      return Collections.emptyList();
+    }
+    return Arrays.asList(bucket.getWords(position));
+  }
 
-        // For each candidates by length, we check if the hash codes with this length module the
-        // hash code of the word is zero. If this condition is fulfilled, as each hash code consists
-        // of products of prime numbers, it will mean that we have found a list of words of a
-        // specific length that can be part of the anagram
-        if (inputWordHash % key == 0) {
-          storeAnagrams[currentLengthPos] =
-              entryCandidates.getValue().stream().toArray(size -> new String[size]);
+  /**
+   * Gets the words of a dictionary that can be spelled with some letters, without using all of
+   * them. Each "?" or "*" of the letters is a blank tile, that can take the place of any letter.
+   *
+   * @param dictionary the snapshot of the dictionary
+   * @param letters the letters available
+   * @param minWordLength the minimum length of the words
+   * @param maxResults the maximum number of words, 0 for no limit
+   * @return the words, from the longest ones to the shortest ones and in alphabetical order
+   * @throws InvalidLettersException if there are too many letters or blank tiles
+   */
+  public List<String> getSubAnagrams(Dictionary dictionary, String letters, int minWordLength,
+      int maxResults) {
+    if (subAnagramsMaxLetters > 0 && letters.length() > subAnagramsMaxLetters) {
+      throw new InvalidLettersException(
+          "Sorry! The letters can not be more than " + subAnagramsMaxLetters);
+    }
+    int blanks = 0;
+    for (int pos = 0; pos < letters.length(); pos++) {
+      if (letters.charAt(pos) == '?' || letters.charAt(pos) == '*') {
+        blanks++;
+      }
+    }
+    if (subAnagramsMaxBlanks > 0 && blanks > subAnagramsMaxBlanks) {
+      throw new InvalidLettersException(
+          "Sorry! The blank tiles can not be more than " + subAnagramsMaxBlanks);
+    }
+
+    return dictionary.getSubAnagramIndex().find(this.toSignature(letters), 0, blanks,
+        minWordLength, maxResults);
+  }
 
-          // Pass to the next length and the newy hash code will be the rest between the current
-          // hash code and the hash code found by length
-          this.getAnagramsByLength(lengthCombinations, currentLengthPos + 1, inputWordHash / key,
-              storeAnagrams, anagramsFound);
+  /**
+   * Group a list of words into classes of anagrams, the words with the same letters. The words are
+   * indexed like a dictionary, so they are normalized and the repeated words are kept only once.
+   *
+   * @param words the words
+   * @param minGroupSize the minimum number of words of a class to return it
+   * @return the classes, from the shortest words to the longest ones
+   */
+  public List<List<String>> groupAnagrams(List<String> words, int minGroupSize) {
+    DictionaryBuilder builder = new DictionaryBuilder();
+    for (String word : words) {
+      builder.addWord(word);
+    }
+    Dictionary grouped = builder.build(GROUPED_DICTIONARY_ID, lastVersion.incrementAndGet());
+
+    List<List<String>> groups = new ArrayList<List<String>>();
+    for (int length = 1; length <= grouped.getMaxWordLength(); length++) {
+      WordBucket bucket = grouped.getCandidatesByLength(length);
+      for (int position = 0; bucket != null && position < bucket.size(); position++) {
+        if (bucket.endWord(position) - bucket.firstWord(position) >= minGroupSize) {
+          groups.add(Arrays.asList(bucket.getWords(position)));
         }
       }
     }
+    return groups;
+  }
+
+  /**
+   * Gets the statistics of the cache of anagrams.
+   *
+   * @return the hits, misses and evictions of the cache and the number of pages and anagrams kept,
+   *         or an empty map if the cache is disabled
+   */
+  public Map<String, Object> getCacheStatistics() {
+    Map<String, Object> statistics = new HashMap<String, Object>();
+    if (anagramCache != null) {
+      CacheStats stats = anagramCache.stats();
+      statistics.put("hits", stats.hitCount());
+      statistics.put("misses", stats.missCount());
+      statistics.put("hitRate", stats.hitRate());
+      statistics.put("evictions", stats.evictionCount());
+      statistics.put("evictedAnagrams", stats.evictionWeight());
+      statistics.put("pages", anagramCache.estimatedSize());
+      anagramCache.policy().eviction()
+          .ifPresent(eviction -> statistics.put("anagrams", eviction.weightedSize().orElse(0)));
+    }
+    return statistics;
+  }
+
+  /**
+   * Record the metrics of a search: its time, the signatures visited and the anagrams found. The
+   * time is tagged with whether the search was stopped by the timeout, so the slow queries can be
+   * told apart from the ones cut by the limit.
+   *
+   * @param mode the kind of search, "page", "parallel", "distributed", "partition" or "stream"
+   * @param startTime the time when the search started, as given by {@link System#nanoTime()}
+   * @param timedOut whether the search was stopped because the time was over
+   * @param visited the number of signatures visited
+   * @param found the number of anagrams found
+   */
+  private void recordSearch(String mode, long startTime, boolean timedOut, long visited,
+      long found) {
+    meterRegistry.timer(SEARCH_METRIC, "mode", mode, "timedOut", String.valueOf(timedOut))
+        .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    meterRegistry.summary(SEARCH_METRIC + ".signatures", "mode", mode).record(visited);
+    meterRegistry.summary(SEARCH_METRIC + ".anagrams", "mode", mode).record(found);
+  }
+
+  /**
+   * Gets the pool of the parallel searches.
+   *
+   * @return the pool configured, or the common pool when there is none
+   */
+  private ForkJoinPool getSearchPool() {
+    return searchPool != null ? searchPool : ForkJoinPool.commonPool();
+  }
+
+  /**
+   * Limit the time of a query to the configured timeout.
+   *
+   * @param query the word or phrase used to search anagrams and the limits of the search
+   */
+  private void limitTimeout(AnagramQuery query) {
+    // The configured timeout protects the threads from queries that would run for minutes
+    if (searchTimeout > 0 && (query.getTimeoutMillis() == 0
+        || query.getTimeoutMillis() > searchTimeout)) {
+      query.timeoutMillis(searchTimeout);
+    }
+  }
+
+  /**
+   * Limit the number of anagrams passed to a sink to the maximum of a query. The anagram after the
+   * maximum is not accepted, so the search stops at the first anagram of the next page.
+   *
+   * @param query the query with the maximum number of anagrams
+   * @param sink the sink of the anagrams found
+   * @return the sink limited
+   */
+  private AnagramSink limit(AnagramQuery query, AnagramSink sink) {
+    if (query.getMaxResults() == 0) {
+      return sink;
+    }
+
+    return new AnagramSink() {
+      private int accepted;
+
+      @Override
+      public boolean accept(Dictionary dictionary, int[] wordIds, int count) {
+        return accepted++ < query.getMaxResults() && sink.accept(dictionary, wordIds, count);
+      }
+    };
   }
 
+  /**
+   * Calculate the signature of the letters of a word or phrase.
+   *
+   * @param words the word or phrase used to search anagrams
+   * @return the signature of its letters
+   */
+  private long[] toSignature(String words) {
+    // Special characters are ignored by the signature
+    return LetterSignature.of(words);
+  }
+
+  /**
+   * The class BatchSearch, the searches of the different queries of a batch. Only
+   * {@link DictionaryService#batchConcurrency} of them are into the executor of the batches at the
+   * same time, and each search that finishes submits the next one.
+   */
+  private final class BatchSearch {
+
+    /** The snapshot of the dictionary. */
+    private final Dictionary dictionary;
+
+    /** The queries to search. */
+    private final List<AnagramQuery> queries;
+
+    /** The page of each query, filled as the searches finish. */
+    private final AnagramPage[] pages;
+
+    /** The position of the next query to submit. */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /** The number of queries not searched yet. */
+    private final AtomicInteger pending;
+
+    /** The pages of all the queries, completed when the last search finishes. */
+    private final CompletableFuture<List<AnagramPage>> result =
+        new CompletableFuture<List<AnagramPage>>();
+
+    /**
+     * Instantiates a new batch search.
+     *
+     * @param dictionary the snapshot of the dictionary
+     * @param queries the queries to search
+     */
+    private BatchSearch(Dictionary dictionary, List<AnagramQuery> queries) {
+      this.dictionary = dictionary;
+      this.queries = queries;
+      this.pages = new AnagramPage[queries.size()];
+      this.pending = new AtomicInteger(queries.size());
+    }
+
+    /**
+     * Start the searches.
+     *
+     * @return the future pages of the queries, in the same order
+     */
+    private CompletableFuture<List<AnagramPage>> start() {
+      if (queries.isEmpty()) {
+        result.complete(Collections.<AnagramPage>emptyList());
+      } else if (batchTaskExecutor == null) {
+        for (int index = 0; index < queries.size() && !result.isDone(); index++) {
+          this.search(index);
+        }
+      } else {
+        for (int searching = 0; searching < Math.max(1, batchConcurrency); searching++) {
+          this.submitNext();
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Submit the search of the next query to the executor of the batches, if any is left. When
+     * the queue is full, the batch is rejected.
+     */
+    private void submitNext() {
+      int index = next.getAndIncrement();
+      if (index >= queries.size() || result.isDone()) {
+        return;
+      }
+      try {
+        batchTaskExecutor.execute(() -> this.search(index));
+      } catch (RejectedExecutionException ex) {
+        meterRegistry.counter(SEARCH_METRIC + ".rejected").increment();
+        result.completeExceptionally(new SearchRejectedException(ex));
+      }
+    }
+
+    /**
+     * Search a query, completing the batch if it is the last one or submitting the next one.
+     *
+     * @param index the position of the query
+     */
+    private void search(int index) {
+      try {
+        pages[index] = DictionaryService.this.getAnagrams(dictionary, queries.get(index), false);
+      } catch (RuntimeException ex) {
+        result.completeExceptionally(ex);
+        return;
+      }
+      if (pending.decrementAndGet() == 0) {
+        result.complete(Arrays.asList(pages));
+      } else if (batchTaskExecutor != null) {
+        this.submitNext();
+      }
+    }
+  }
 }
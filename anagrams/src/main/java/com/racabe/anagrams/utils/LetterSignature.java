@@ -0,0 +1,256 @@
+package com.racabe.anagrams.utils;
+
+import java.nio.LongBuffer;
+
+import com.racabe.anagrams.exception.DictionaryException;
+
+/**
+ * The Class LetterSignature. A signature identifies the letters of a word, whatever their order,
+ * so two words are anagrams when they have the same signature. The signature counts how many times
+ * each letter appears, and packs the 26 counters into three longs, 9 counters of 7 bits each per
+ * long. The highest bit of each counter is a guard bit that stays clear, so a whole long of
+ * counters can be compared or subtracted with a single operation without borrowing between
+ * letters. Unlike a product of primes, the signature does not overflow for long phrases: each
+ * letter can appear up to {@link #MAX_LETTER_COUNT} times.
+ */
+public final class LetterSignature {
+
+  /** The number of longs of a signature. */
+  public static final int LONGS = 3;
+
+  /** The maximum times that a letter can appear into a signature. */
+  public static final int MAX_LETTER_COUNT = 63;
+
+  /** The number of letters of the alphabet. */
+  public static final int LETTERS = 26;
+
+  /** The bits used by the counter of each letter, including the guard bit. */
+  private static final int BITS_PER_LETTER = 7;
+
+  /** The number of letters packed into each long. */
+  private static final int LETTERS_PER_LONG = 9;
+
+  /** The guard bit of every counter into a long. */
+  private static final long GUARD_BITS = 0x4081020408102040L;
+
+  // Private constructor to prevent instantiation
+  private LetterSignature() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Method to know the position of a letter into the alphabet.
+   *
+   * @param character the character
+   * @return the position of the letter, or -1 if the character is not a letter from A to Z
+   */
+  public static int letterIndex(char character) {
+    if (character >= 'a' && character <= 'z') {
+      return character - 'a';
+    }
+    if (character >= 'A' && character <= 'Z') {
+      return character - 'A';
+    }
+    return -1;
+  }
+
+  /**
+   * Method to transform a word in its signature. Letter case does not matter and the characters
+   * that are not letters are ignored.
+   *
+   * @param word the word
+   * @return the signature of the word
+   */
+  public static long[] of(CharSequence word) {
+    long[] signature = new long[LONGS];
+    for (int pos = 0; pos < word.length(); pos++) {
+      int letter = letterIndex(word.charAt(pos));
+      if (letter >= 0) {
+        addLetter(signature, 0, letter);
+      }
+    }
+    return signature;
+  }
+
+  /**
+   * Add a letter to a signature stored into an array.
+   *
+   * @param signatures the array with the signature
+   * @param offset the position of the signature into the array
+   * @param letter the position of the letter into the alphabet
+   */
+  public static void addLetter(long[] signatures, int offset, int letter) {
+    int index = offset + letter / LETTERS_PER_LONG;
+    int shift = (letter % LETTERS_PER_LONG) * BITS_PER_LETTER;
+    if (((signatures[index] >>> shift) & MAX_LETTER_COUNT) == MAX_LETTER_COUNT) {
+      throw new DictionaryException("Sorry! A letter can not appear more than "
+          + MAX_LETTER_COUNT + " times into a word or phrase");
+    }
+    signatures[index] += 1L << shift;
+  }
+
+  /**
+   * Method to know if a letter can be added to a signature, because it does not appear
+   * {@link #MAX_LETTER_COUNT} times yet.
+   *
+   * @param signatures the array with the signature
+   * @param offset the position of the signature into the array
+   * @param letter the position of the letter into the alphabet
+   * @return true if the letter can be added
+   */
+  public static boolean canAddLetter(long[] signatures, int offset, int letter) {
+    return count(signatures, offset, letter) < MAX_LETTER_COUNT;
+  }
+
+  /**
+   * Method to know how many times a letter appears into a signature.
+   *
+   * @param signatures the array with the signature
+   * @param offset the position of the signature into the array
+   * @param letter the position of the letter into the alphabet
+   * @return the times the letter appears
+   */
+  public static int count(long[] signatures, int offset, int letter) {
+    int shift = (letter % LETTERS_PER_LONG) * BITS_PER_LETTER;
+    return (int) ((signatures[offset + letter / LETTERS_PER_LONG] >>> shift) & MAX_LETTER_COUNT);
+  }
+
+  /**
+   * Method to know the number of letters of a signature.
+   *
+   * @param signatures the array with the signature
+   * @param offset the position of the signature into the array
+   * @return the number of letters
+   */
+  public static int length(long[] signatures, int offset) {
+    int length = 0;
+    for (int letter = 0; letter < LETTERS; letter++) {
+      length += count(signatures, offset, letter);
+    }
+    return length;
+  }
+
+  /**
+   * Method to know if all the letters of a signature are contained into another one, as many times
+   * as they appear. Adding the guard bits to the container, a counter keeps its guard bit after the
+   * subtraction only if it was greater or equal than the counter subtracted.
+   *
+   * @param container the array with the signature that should contain the letters
+   * @param containerOffset the position of the signature into the array
+   * @param contained the array with the signature of the letters
+   * @param containedOffset the position of the signature into the array
+   * @return true if all the letters are contained
+   */
+  public static boolean contains(long[] container, int containerOffset, long[] contained,
+      int containedOffset) {
+    return (((container[containerOffset] | GUARD_BITS) - contained[containedOffset])
+        & ((container[containerOffset + 1] | GUARD_BITS) - contained[containedOffset + 1])
+        & ((container[containerOffset + 2] | GUARD_BITS) - contained[containedOffset + 2])
+        & GUARD_BITS) == GUARD_BITS;
+  }
+
+  /**
+   * Method to know if all the letters of a signature stored into a buffer, like the ones of a
+   * dictionary mapped into memory, are contained into another signature.
+   *
+   * @param container the array with the signature that should contain the letters
+   * @param containerOffset the position of the signature into the array
+   * @param contained the buffer with the signature of the letters
+   * @param containedOffset the position of the signature into the buffer
+   * @return true if all the letters are contained
+   */
+  public static boolean contains(long[] container, int containerOffset, LongBuffer contained,
+      int containedOffset) {
+    return (((container[containerOffset] | GUARD_BITS) - contained.get(containedOffset))
+        & ((container[containerOffset + 1] | GUARD_BITS) - contained.get(containedOffset + 1))
+        & ((container[containerOffset + 2] | GUARD_BITS) - contained.get(containedOffset + 2))
+        & GUARD_BITS) == GUARD_BITS;
+  }
+
+  /**
+   * Subtract the letters of a signature from another one. The letters subtracted must be contained
+   * into the first signature.
+   *
+   * @param container the array with the signature that contains the letters
+   * @param containerOffset the position of the signature into the array
+   * @param contained the array with the signature of the letters
+   * @param containedOffset the position of the signature into the array
+   * @param result the array to store the letters remaining
+   * @param resultOffset the position of the signature into the result array
+   */
+  public static void subtract(long[] container, int containerOffset, long[] contained,
+      int containedOffset, long[] result, int resultOffset) {
+    result[resultOffset] = container[containerOffset] - contained[containedOffset];
+    result[resultOffset + 1] = container[containerOffset + 1] - contained[containedOffset + 1];
+    result[resultOffset + 2] = container[containerOffset + 2] - contained[containedOffset + 2];
+  }
+
+  /**
+   * Subtract the letters of a signature stored into a buffer from another one. The letters
+   * subtracted must be contained into the first signature.
+   *
+   * @param container the array with the signature that contains the letters
+   * @param containerOffset the position of the signature into the array
+   * @param contained the buffer with the signature of the letters
+   * @param containedOffset the position of the signature into the buffer
+   * @param result the array to store the letters remaining
+   * @param resultOffset the position of the signature into the result array
+   */
+  public static void subtract(long[] container, int containerOffset, LongBuffer contained,
+      int containedOffset, long[] result, int resultOffset) {
+    result[resultOffset] = container[containerOffset] - contained.get(containedOffset);
+    result[resultOffset + 1] = container[containerOffset + 1] - contained.get(containedOffset + 1);
+    result[resultOffset + 2] = container[containerOffset + 2] - contained.get(containedOffset + 2);
+  }
+
+  /**
+   * Method to know if a signature has no letters.
+   *
+   * @param signatures the array with the signature
+   * @param offset the position of the signature into the array
+   * @return true if the signature has no letters
+   */
+  public static boolean isEmpty(long[] signatures, int offset) {
+    return (signatures[offset] | signatures[offset + 1] | signatures[offset + 2]) == 0;
+  }
+
+  /**
+   * Compare two signatures, to keep them sorted.
+   *
+   * @param first the array with the first signature
+   * @param firstOffset the position of the first signature into the array
+   * @param second the array with the second signature
+   * @param secondOffset the position of the second signature into the array
+   * @return a negative number, zero or a positive number if the first signature is lower, equal
+   *         or greater than the second one
+   */
+  public static int compare(long[] first, int firstOffset, long[] second, int secondOffset) {
+    for (int pos = 0; pos < LONGS; pos++) {
+      int comparison = Long.compare(first[firstOffset + pos], second[secondOffset + pos]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Compare a signature stored into a buffer with another one.
+   *
+   * @param first the buffer with the first signature
+   * @param firstOffset the position of the first signature into the buffer
+   * @param second the array with the second signature
+   * @param secondOffset the position of the second signature into the array
+   * @return a negative number, zero or a positive number if the first signature is lower, equal
+   *         or greater than the second one
+   */
+  public static int compare(LongBuffer first, int firstOffset, long[] second, int secondOffset) {
+    for (int pos = 0; pos < LONGS; pos++) {
+      int comparison = Long.compare(first.get(firstOffset + pos), second[secondOffset + pos]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+}
@@ -2,12 +2,21 @@ package com.racabe.anagrams.controller;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,12 +24,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import com.racabe.anagrams.controller.converter.AnagramPageHttpMessageConverter;
+import com.racabe.anagrams.exception.DictionaryNotFoundException;
+import com.racabe.anagrams.exception.SearchRejectedException;
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryBuilder;
+import com.racabe.anagrams.search.AnagramConsumer;
+import com.racabe.anagrams.search.AnagramPage;
+import com.racabe.anagrams.search.AnagramQuery;
 import com.racabe.anagrams.service.IDictionaryService;
 
 /**
@@ -55,17 +74,257 @@ public class AnagramControllerUnitTest {
       String words = "arona";
       MockMultipartFile dictionaryFile = new MockMultipartFile("dictionaryFile", "anagramDic.txt", "text/plain", "aardvark\r\naardwolf\r\naaron\r\naback\r\nabacus\r\nabaft\r\nabalone\r\nabandon\r\nabandoned\r\nabandonment\r\nabandons".getBytes());
    
-      Set<String> anagrams = new HashSet<String>();
-      anagrams.add("aaron");
+      AnagramPage anagrams =
+          new AnagramPage(Collections.singletonList("aaron"), true, false, null);
    
-      given(dictionaryService.getAnagrams(words)).willReturn(anagrams);
+      Dictionary dictionary = new DictionaryBuilder().build("upload", 1L);
+      given(dictionaryService.parseDictionaryToHastableByWordLength(dictionaryFile))
+          .willReturn(dictionary);
+      given(dictionaryService.getAnagramsAsync(eq(dictionary), any(AnagramQuery.class)))
+          .willReturn(CompletableFuture.completedFuture(anagrams));
       
-      mvc.perform(MockMvcRequestBuilders.multipart("/anagrams")
+      MvcResult result = mvc.perform(MockMvcRequestBuilders.multipart("/anagrams")
         .file(dictionaryFile)
         .param("words", words)
         .contentType(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+      mvc.perform(asyncDispatch(result))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.anagrams", hasSize(1)))
         .andExpect(jsonPath("$.word", is(words)));
   }
+
+  /**
+   * Given accept anagram page when post anagrams then return binary page without cursor.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenAcceptAnagramPage_whenPostAnagrams_thenReturnBinaryPageWithoutCursor()
+      throws Exception {
+    MockMultipartFile dictionaryFile = new MockMultipartFile("dictionaryFile", "anagramDic.txt",
+        "text/plain", "aaron\r\naback".getBytes());
+    AnagramPage anagrams =
+        new AnagramPage(Collections.singletonList("aaron"), false, true, "1;5");
+
+    Dictionary dictionary = new DictionaryBuilder().build("upload", 1L);
+    given(dictionaryService.parseDictionaryToHastableByWordLength(dictionaryFile))
+        .willReturn(dictionary);
+    given(dictionaryService.getAnagramsAsync(eq(dictionary), any(AnagramQuery.class)))
+        .willReturn(CompletableFuture.completedFuture(anagrams));
+
+    MvcResult result = mvc.perform(MockMvcRequestBuilders.multipart("/anagrams")
+        .file(dictionaryFile)
+        .param("words", "arona")
+        .accept(AnagramPageHttpMessageConverter.MEDIA_TYPE))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(AnagramPageHttpMessageConverter.MEDIA_TYPE))
+        .andExpect(content().bytes(new byte[] {1, 2, 1, 5, 'a', 'a', 'r', 'o', 'n', 1, 1, 0}));
+  }
+
+  /**
+   * Given dictionary when post dictionaries then return dictionary id.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenDictionary_whenPostDictionaries_thenReturnDictionaryId() throws Exception {
+    MockMultipartFile dictionaryFile = new MockMultipartFile("dictionaryFile", "anagramDic.txt",
+        "text/plain", "aardvark\r\naardwolf\r\naaron".getBytes());
+
+    given(dictionaryService.loadDictionary(null, dictionaryFile)).willReturn("anagramDic");
+
+    mvc.perform(MockMvcRequestBuilders.multipart("/dictionaries").file(dictionaryFile))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id", is("anagramDic")));
+  }
+
+  /**
+   * Given dictionary id and words when get anagrams then return json object.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenDictionaryIdAndWords_whenGetAnagrams_thenReturnJsonObject() throws Exception {
+    String words = "arona";
+
+    AnagramPage anagrams =
+        new AnagramPage(Collections.singletonList("aaron"), false, false, "next");
+
+    Dictionary dictionary = new DictionaryBuilder().build("anagramDic", 1L);
+    given(dictionaryService.getDictionary("anagramDic")).willReturn(dictionary);
+    given(dictionaryService.getAnagramsAsync(eq(dictionary), any(AnagramQuery.class)))
+        .willReturn(CompletableFuture.completedFuture(anagrams));
+
+    MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/dictionaries/anagramDic/anagrams")
+        .param("words", words)
+        .param("maxResults", "1"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.anagrams", hasSize(1)))
+        .andExpect(jsonPath("$.word", is(words)))
+        .andExpect(jsonPath("$.complete", is(false)))
+        .andExpect(jsonPath("$.nextCursor", is("next")));
+  }
+
+  /**
+   * Given accept anagram page when get anagrams then return binary page.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenAcceptAnagramPage_whenGetAnagrams_thenReturnBinaryPage() throws Exception {
+    AnagramPage anagrams =
+        new AnagramPage(Collections.singletonList("aaron"), true, false, null);
+
+    Dictionary dictionary = new DictionaryBuilder().build("anagramDic", 1L);
+    given(dictionaryService.getDictionary("anagramDic")).willReturn(dictionary);
+    given(dictionaryService.getAnagramsAsync(eq(dictionary), any(AnagramQuery.class)))
+        .willReturn(CompletableFuture.completedFuture(anagrams));
+
+    MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/dictionaries/anagramDic/anagrams")
+        .param("words", "arona")
+        .accept(AnagramPageHttpMessageConverter.MEDIA_TYPE))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(AnagramPageHttpMessageConverter.MEDIA_TYPE))
+        .andExpect(content().bytes(new byte[] {1, 1, 1, 5, 'a', 'a', 'r', 'o', 'n', 1, 1, 0}));
+  }
+
+  /**
+   * Given unknown dictionary id when get anagrams then return not found.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenUnknownDictionaryId_whenGetAnagrams_thenReturnNotFound() throws Exception {
+    given(dictionaryService.getDictionary("unknown"))
+        .willThrow(new DictionaryNotFoundException("unknown"));
+
+    mvc.perform(MockMvcRequestBuilders.get("/dictionaries/unknown/anagrams")
+        .param("words", "arona"))
+        .andExpect(status().isNotFound());
+  }
+
+  /**
+   * Given busy server when get anagrams then return too many requests with a retry hint.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenBusyServer_whenGetAnagrams_thenReturnTooManyRequests() throws Exception {
+    Dictionary dictionary = new DictionaryBuilder().build("anagramDic", 1L);
+    given(dictionaryService.getDictionary("anagramDic")).willReturn(dictionary);
+    given(dictionaryService.getAnagramsAsync(eq(dictionary), any(AnagramQuery.class)))
+        .willThrow(new SearchRejectedException(new RejectedExecutionException()));
+
+    mvc.perform(MockMvcRequestBuilders.get("/dictionaries/anagramDic/anagrams")
+        .param("words", "arona"))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+        .andExpect(jsonPath("$.retryAfter", is(1)));
+  }
+
+  /**
+   * Given busy batch pool when get anagrams of a batch then return too many requests.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenBusyBatchPool_whenGetAnagramsBatch_thenReturnTooManyRequests()
+      throws Exception {
+    Dictionary dictionary = new DictionaryBuilder().build("anagramDic", 1L);
+    given(dictionaryService.getDictionary("anagramDic")).willReturn(dictionary);
+    CompletableFuture<List<AnagramPage>> rejected = new CompletableFuture<List<AnagramPage>>();
+    rejected.completeExceptionally(new SearchRejectedException(new RejectedExecutionException()));
+    given(dictionaryService.getAnagramsAsync(eq(dictionary), anyList())).willReturn(rejected);
+
+    MvcResult result = mvc.perform(
+        MockMvcRequestBuilders.post("/dictionaries/anagramDic/anagrams/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[\"arona\", \"listen\"]"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+  }
+
+  /**
+   * Given busy peer when get anagram partition then return too many requests at once.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenBusyPeer_whenGetAnagramPartition_thenReturnTooManyRequests()
+      throws Exception {
+    Dictionary dictionary = new DictionaryBuilder().build("anagramDic", 1L);
+    given(dictionaryService.getDictionary("anagramDic")).willReturn(dictionary);
+    given(dictionaryService.getAnagramPartitionAsync(eq(dictionary), any(AnagramQuery.class),
+        eq("abc"), eq(0), eq(2), eq(4)))
+        .willThrow(new SearchRejectedException(new RejectedExecutionException()));
+
+    mvc.perform(MockMvcRequestBuilders.get("/dictionaries/anagramDic/anagrams/partition")
+        .param("words", "arona").param("from", "0").param("to", "2").param("parts", "4")
+        .param("fingerprint", "abc")
+        .accept(AnagramPageHttpMessageConverter.MEDIA_TYPE, MediaType.APPLICATION_JSON))
+        .andExpect(status().isTooManyRequests());
+  }
+
+  /**
+   * Given stream stopped by the time when stream anagrams then end with the state of the search.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenStreamTimedOut_whenStreamAnagrams_thenEndWithStateOfSearch() throws Exception {
+    Dictionary dictionary = new DictionaryBuilder().build("anagramDic", 1L);
+    given(dictionaryService.getDictionary("anagramDic")).willReturn(dictionary);
+    given(dictionaryService.streamAnagrams(eq(dictionary), any(AnagramQuery.class),
+        any(AnagramConsumer.class))).willAnswer(invocation -> {
+          invocation.<AnagramConsumer>getArgument(2).accept("aaron");
+          return new AnagramPage(Collections.<String>emptyList(), false, true, "next");
+        });
+
+    MvcResult result = mvc.perform(
+        MockMvcRequestBuilders.get("/dictionaries/anagramDic/anagrams/stream")
+            .param("words", "arona"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string(
+            "\"aaron\"\n{\"complete\":false,\"timedOut\":true,\"nextCursor\":\"next\"}\n"));
+  }
+
+  /**
+   * Given malformed cursor when stream anagrams then return bad request before streaming.
+   *
+   * @throws Exception the exception
+   */
+  @Test
+  public void givenMalformedCursor_whenStreamAnagrams_thenReturnBadRequest() throws Exception {
+    Dictionary dictionary = new DictionaryBuilder().build("anagramDic", 1L);
+    given(dictionaryService.getDictionary("anagramDic")).willReturn(dictionary);
+
+    // The cursor has the version of the dictionary, but no level
+    mvc.perform(MockMvcRequestBuilders.get("/dictionaries/anagramDic/anagrams/stream")
+        .param("words", "arona")
+        .param("cursor", "MQ"))
+        .andExpect(status().isBadRequest());
+  }
 }
@@ -0,0 +1,205 @@
+package com.racabe.anagrams.controller.converter;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryBuilder;
+import com.racabe.anagrams.model.DictionaryReader;
+import com.racabe.anagrams.search.AnagramList;
+import com.racabe.anagrams.search.AnagramPage;
+import com.racabe.anagrams.search.AnagramQuery;
+import com.racabe.anagrams.search.AnagramSearch;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The Class AnagramPageHttpMessageConverterTest Unit Test.
+ */
+public class AnagramPageHttpMessageConverterTest {
+
+  /**
+   * Given page of word ids when write then decode and read the same anagrams as the rendered page.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Test
+  public void givenPageOfWordIds_whenWrite_thenReadSameAnagramsAsRenderedPage()
+      throws IOException {
+    DictionaryBuilder builder = new DictionaryBuilder();
+    for (String word : new String[] {"dog", "god", "act", "cat", "tac", "good"}) {
+      builder.addWord(word);
+    }
+    Dictionary dictionary = builder.build("test", 1L);
+    long[] signature = LetterSignature.of("dog cat");
+
+    AnagramList anagrams = new AnagramList(dictionary);
+    new AnagramSearch(dictionary, new AnagramQuery("dog cat")).search(signature, anagrams);
+    List<String> rendered = new ArrayList<String>(anagrams);
+
+    byte[] fromIds = write(new AnagramPage(anagrams, false, false, "next"));
+    byte[] fromStrings = write(new AnagramPage(rendered, false, false, "next"));
+
+    assertThat(fromIds, is(fromStrings));
+    assertThat(fromIds[1] & 0xFF, is(AnagramPageHttpMessageConverter.WITH_CURSOR));
+    assertThat(decode(fromIds), contains(rendered.toArray(new String[0])));
+
+    AnagramPage read = new AnagramPageHttpMessageConverter().read(AnagramPage.class,
+        new MockHttpInputMessage(fromIds));
+    assertThat(read.getAnagrams(), contains(rendered.toArray(new String[0])));
+    assertThat(read.isComplete(), is(false));
+    assertThat(read.getNextCursor(), is("next"));
+  }
+
+  /**
+   * Given page of many words when write then write same bytes as rendered page.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Test
+  public void givenPageOfManyWords_whenWrite_thenWriteSameBytesAsRenderedPage()
+      throws IOException {
+    Dictionary dictionary = new DictionaryReader(new DictionaryBuilder())
+        .read(Paths.get("../anagramDic.txt")).build("anagramDic", 1L);
+    AnagramQuery query = new AnagramQuery("Computer science").maxWords(4);
+
+    AnagramList anagrams = new AnagramList(dictionary);
+    new AnagramSearch(dictionary, query).search(LetterSignature.of(query.getWords()), anagrams);
+    List<String> rendered = new ArrayList<String>(anagrams);
+    assertThat(rendered, hasSize(3167));
+
+    byte[] fromIds = write(new AnagramPage(anagrams, false, false, null));
+    assertThat(fromIds, is(write(new AnagramPage(rendered, false, false, null))));
+    assertThat(decode(fromIds), contains(rendered.toArray(new String[0])));
+  }
+
+  /**
+   * Given forged pages when read then throw exception without allocating their counts.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Test
+  public void givenForgedPages_whenRead_thenThrowExceptionWithoutAllocatingTheirCounts()
+      throws IOException {
+    int version = AnagramPageHttpMessageConverter.FORMAT_VERSION;
+    byte[][] pages = {
+        // A table of -1 words, a varint of 5 bytes with the sign bit
+        {(byte) version, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F},
+        // A varint of 6 bytes
+        {(byte) version, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 1},
+        // A cursor of 2^31 - 1 bytes, truncated
+        {(byte) version, AnagramPageHttpMessageConverter.WITH_CURSOR, (byte) 0xFF, (byte) 0xFF,
+            (byte) 0xFF, (byte) 0xFF, 0x07, 'a'},
+        // A table of 2^31 - 1 words, truncated
+        {(byte) version, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 1, 'a'},
+        // An anagram with the position 1 of a table of one word
+        {(byte) version, 0, 1, 1, 'a', 1, 1, 1},
+        // An anagram with the position -1
+        {(byte) version, 0, 1, 1, 'a', 1, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+            0x0F}};
+
+    for (byte[] page : pages) {
+      try {
+        new AnagramPageHttpMessageConverter().read(AnagramPage.class,
+            new MockHttpInputMessage(page));
+        fail("The page " + Arrays.toString(page) + " is not valid");
+      } catch (HttpMessageNotReadableException ex) {
+        assertThat(ex.getMessage(), startsWith("The page of anagrams is"));
+      }
+    }
+  }
+
+  /**
+   * Write a page with the converter.
+   *
+   * @param page the page
+   * @return the bytes written
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static byte[] write(AnagramPage page) throws IOException {
+    MockHttpOutputMessage message = new MockHttpOutputMessage();
+    new AnagramPageHttpMessageConverter().write(page, AnagramPageHttpMessageConverter.MEDIA_TYPE,
+        message);
+    return message.getBodyAsBytes();
+  }
+
+  /**
+   * Decode the anagrams of a page written by the converter.
+   *
+   * @param bytes the bytes written
+   * @return the anagrams, with their words separated by a space
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  static List<String> decode(byte[] bytes) throws IOException {
+    InputStream in = new ByteArrayInputStream(bytes);
+    assertThat(in.read(), is(AnagramPageHttpMessageConverter.FORMAT_VERSION));
+    if ((in.read() & AnagramPageHttpMessageConverter.WITH_CURSOR) != 0) {
+      readString(in);
+    }
+
+    String[] table = new String[readVarint(in)];
+    for (int position = 0; position < table.length; position++) {
+      table[position] = readString(in);
+    }
+
+    List<String> anagrams = new ArrayList<String>();
+    for (int count = readVarint(in); count > 0; count--) {
+      String[] words = new String[readVarint(in)];
+      for (int pos = 0; pos < words.length; pos++) {
+        words[pos] = table[readVarint(in)];
+      }
+      anagrams.add(String.join(" ", Arrays.asList(words)));
+    }
+    assertThat(in.read(), is(-1));
+    return anagrams;
+  }
+
+  /**
+   * Read a string, its length and its UTF-8 bytes.
+   *
+   * @param in the input stream
+   * @return the string
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static String readString(InputStream in) throws IOException {
+    byte[] bytes = new byte[readVarint(in)];
+    assertThat(in.read(bytes), is(bytes.length));
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read an unsigned varint.
+   *
+   * @param in the input stream
+   * @return the number
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static int readVarint(InputStream in) throws IOException {
+    int value = 0;
+    int shift = 0;
+    int current;
+    do {
+      current = in.read();
+      value |= (current & 0x7F) << shift;
+      shift += 7;
+    } while ((current & 0x80) != 0);
+    return value;
+  }
+}
@@ -0,0 +1,99 @@
+package com.racabe.anagrams.model;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The Class DictionaryDeltaTest Unit Test.
+ */
+public class DictionaryDeltaTest {
+
+  /** The snapshot updated by the tests. */
+  private final Dictionary dictionary = new DictionaryBuilder().addWord("dog").addWord("god")
+      .addWord("cat").addWord("list").addWord("listen").addWord("silent").build("test", 1L);
+
+  /**
+   * Given delta file when apply then share the buckets without changes.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Test
+  public void givenDeltaFile_whenApply_thenShareBucketsWithoutChanges() throws IOException {
+    String changes = "# New words\n+Enlist\ntinsel\n\n-silent\n-cat\n+act\n";
+    Dictionary updated = new DictionaryDelta()
+        .read(new ByteArrayInputStream(changes.getBytes(StandardCharsets.UTF_8)))
+        .applyTo(dictionary, 2L);
+
+    assertThat(updated.getVersion(), is(2L));
+    assertThat(updated.size(), is(7));
+    assertThat(this.wordsOf(updated, "listen"), arrayContaining("listen", "enlist", "tinsel"));
+    assertThat(this.wordsOf(updated, "cat"), arrayContaining("act"));
+    assertThat(this.wordsOf(updated, "dog"), arrayContaining("dog", "god"));
+    assertThat(updated.getCandidatesByLength(4), is(sameInstance(
+        dictionary.getCandidatesByLength(4))));
+
+    // The snapshot updated does not change
+    assertThat(dictionary.size(), is(6));
+    assertThat(this.wordsOf(dictionary, "listen"), arrayContaining("listen", "silent"));
+  }
+
+  /**
+   * Given words removed when apply then leave out their signatures and lengths.
+   */
+  @Test
+  public void givenWordsRemoved_whenApply_thenLeaveOutTheirSignaturesAndLengths() {
+    DictionaryDelta delta = new DictionaryDelta().removeWord("Dog").removeWord("god")
+        .removeWord("listen").removeWord("silent").removeWord("missing");
+
+    Dictionary updated = delta.applyTo(dictionary, 2L);
+
+    assertThat(updated.size(), is(2));
+    assertThat(updated.getMaxWordLength(), is(4));
+    assertThat(updated.getCandidatesByLength(3).indexOf(LetterSignature.of("dog")), lessThan(0));
+    assertThat(this.wordsOf(updated, "cat"), arrayContaining("cat"));
+    assertThat(updated.getCandidatesByLength(6), is(nullValue()));
+    assertThat(delta.changes(LetterSignature.of("good"), 0), is(true));
+    assertThat(delta.changes(LetterSignature.of("cats"), 0), is(false));
+  }
+
+  /**
+   * Given same words on another node when apply same delta then keep same fingerprint.
+   */
+  @Test
+  public void givenSameWordsOnAnotherNode_whenApplySameDelta_thenKeepSameFingerprint() {
+    Dictionary otherNode = new DictionaryBuilder().addWord("dog").addWord("god").addWord("cat")
+        .addWord("list").addWord("listen").addWord("silent").build("test", 7L);
+    DictionaryDelta delta = new DictionaryDelta().addWord("enlist").removeWord("cat");
+
+    assertThat(otherNode.getFingerprint(), is(dictionary.getFingerprint()));
+    assertThat(delta.applyTo(otherNode, 8L).getFingerprint(),
+        is(delta.applyTo(dictionary, 2L).getFingerprint()));
+    assertThat(delta.applyTo(dictionary, 2L).getFingerprint(),
+        is(not(dictionary.getFingerprint())));
+  }
+
+  /**
+   * Gets the words of a snapshot with the same letters as a word.
+   *
+   * @param snapshot the snapshot of the dictionary
+   * @param word the word
+   * @return the words with the same letters
+   */
+  private String[] wordsOf(Dictionary snapshot, String word) {
+    WordBucket bucket = snapshot.getCandidatesByLength(word.length());
+    return bucket.getWords(bucket.indexOf(LetterSignature.of(word)));
+  }
+}
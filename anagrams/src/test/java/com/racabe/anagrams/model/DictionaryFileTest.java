@@ -0,0 +1,83 @@
+package com.racabe.anagrams.model;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.racabe.anagrams.exception.DictionaryException;
+import com.racabe.anagrams.search.AnagramQuery;
+import com.racabe.anagrams.search.AnagramSearch;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The Class DictionaryFileTest Unit Test.
+ */
+public class DictionaryFileTest {
+
+  /**
+   * Given compiled dictionary when map then return same anagrams.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Test
+  public void givenCompiledDictionary_whenMap_thenReturnSameAnagrams() throws IOException {
+    Dictionary parsed = new DictionaryReader(new DictionaryBuilder())
+        .read(Paths.get("../anagramDic.txt")).build("anagramDic", 1L);
+
+    Path file = Files.createTempFile("anagramDic", ".dict");
+    try {
+      DictionaryFile.write(parsed, file);
+      assertThat(DictionaryFile.isCompiled(file), is(true));
+
+      Dictionary mapped = DictionaryFile.map(file, "anagramDic", 2L);
+      assertThat(mapped.size(), is(parsed.size()));
+      assertThat(mapped.mappedBytes(), greaterThan(0L));
+
+      List<String> expected = this.search(parsed, "Helmuth Elsner");
+      assertThat(this.search(mapped, "Helmuth Elsner"), contains(expected.toArray()));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Given list of words when map then throw exception.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Test(expected = DictionaryException.class)
+  public void givenListOfWords_whenMap_thenThrowException() throws IOException {
+    Path file = Files.createTempFile("words", ".txt");
+    try {
+      Files.write(file, "dog\ngod\n".getBytes(StandardCharsets.UTF_8));
+      assertThat(DictionaryFile.isCompiled(file), is(false));
+
+      DictionaryFile.map(file, "words", 1L);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Search the anagrams of a phrase.
+   *
+   * @param dictionary the dictionary
+   * @param words the phrase
+   * @return the anagrams, in the order of the search
+   */
+  private List<String> search(Dictionary dictionary, String words) {
+    return new ArrayList<String>(new AnagramSearch(dictionary, new AnagramQuery(words))
+        .search(LetterSignature.of(words)));
+  }
+}
@@ -0,0 +1,113 @@
+package com.racabe.anagrams.model;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The Class DictionaryReaderTest Unit Test.
+ */
+public class DictionaryReaderTest {
+
+  /** The words of the dictionary, with mixed case, punctuation and line ends. */
+  private static final String WORDS = "Dog\r\ngod\r\ncross-bun\tIt’s\n\n dog --\r\nCAT";
+
+  /**
+   * Given words across buffers when read stream then return normalized words.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Test
+  public void givenWordsAcrossBuffers_whenReadStream_thenReturnNormalizedWords()
+      throws IOException {
+    // A buffer of 3 bytes splits most of the words
+    Dictionary dictionary = new DictionaryReader(new DictionaryBuilder(), 3)
+        .read(new ByteArrayInputStream(WORDS.getBytes(StandardCharsets.UTF_8)))
+        .build("test", 1L);
+
+    this.assertNormalizedWords(dictionary);
+  }
+
+  /**
+   * Given file when read mapped then return normalized words.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Test
+  public void givenFile_whenReadMapped_thenReturnNormalizedWords() throws IOException {
+    Path file = Files.createTempFile("dictionary", ".txt");
+    try {
+      Files.write(file, WORDS.getBytes(StandardCharsets.UTF_8));
+      Dictionary dictionary =
+          new DictionaryReader(new DictionaryBuilder()).read(file).build("test", 1L);
+
+      this.assertNormalizedWords(dictionary);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Given a word with a letter too many times when read then skip only that word.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @Test
+  public void givenWordWithLetterTooManyTimes_whenRead_thenSkipOnlyThatWord()
+      throws IOException {
+    StringBuilder letters = new StringBuilder();
+    for (int count = 0; count <= LetterSignature.MAX_LETTER_COUNT; count++) {
+      letters.append('a');
+    }
+    String tooLong = letters.toString();
+    String fits = tooLong.substring(1);
+
+    Dictionary dictionary = new DictionaryReader(new DictionaryBuilder(), 16)
+        .read(new ByteArrayInputStream((WORDS + "\n" + tooLong + "\n" + fits + "\nend")
+            .getBytes(StandardCharsets.UTF_8)))
+        .build("test", 1L);
+    assertThat(dictionary.size(), is(7));
+    assertThat(dictionary.getWordId(fits), is(not(-1)));
+    assertThat(dictionary.getWordId("end"), is(not(-1)));
+
+    // The builder and the deltas skip it too
+    assertThat(new DictionaryBuilder().addWord(tooLong).addWord("dog").build("test", 2L).size(),
+        is(1));
+    assertThat(new DictionaryDelta().addWord(tooLong).removeWord(tooLong).isEmpty(), is(true));
+  }
+
+  /**
+   * Check the words of the dictionary: lower case, only letters, and each word once.
+   *
+   * @param dictionary the dictionary read
+   */
+  private void assertNormalizedWords(Dictionary dictionary) {
+    assertThat(dictionary.size(), is(5));
+
+    WordBucket three = dictionary.getCandidatesByLength(3);
+    List<String> words = new ArrayList<String>();
+    for (int pos = 0; pos < three.size(); pos++) {
+      for (String word : three.getWords(pos)) {
+        words.add(word);
+      }
+    }
+    assertThat(words, containsInAnyOrder("its", "cat", "dog", "god"));
+
+    WordBucket eight = dictionary.getCandidatesByLength(8);
+    assertThat(eight.getWords(eight.indexOf(LetterSignature.of("crossbun"))),
+        is(new String[] {"crossbun"}));
+  }
+}
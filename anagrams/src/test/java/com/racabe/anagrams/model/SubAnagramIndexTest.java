@@ -0,0 +1,66 @@
+package com.racabe.anagrams.model;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The Class SubAnagramIndexTest Unit Test.
+ */
+public class SubAnagramIndexTest {
+
+  /** The snapshot indexed by the tests. */
+  private final Dictionary dictionary = new DictionaryBuilder().addWord("a").addWord("at")
+      .addWord("tea").addWord("eat").addWord("ate").addWord("teas").addWord("seat")
+      .addWord("state").addWord("zoo").build("test", 1L);
+
+  /**
+   * Given letters when find then return the words spelled with some of them.
+   */
+  @Test
+  public void givenLetters_whenFind_thenReturnWordsSpelledWithSomeOfThem() {
+    SubAnagramIndex index = dictionary.getSubAnagramIndex();
+
+    assertThat(index.find(LetterSignature.of("Eats!"), 0, 0, 1),
+        containsInAnyOrder("a", "at", "tea", "eat", "ate", "teas", "seat"));
+    assertThat(index.find(LetterSignature.of("Eats"), 0, 0, 3),
+        containsInAnyOrder("tea", "eat", "ate", "teas", "seat"));
+    assertThat(index.find(LetterSignature.of("xyz"), 0, 0, 1), hasSize(0));
+    assertThat(dictionary.getSubAnagramIndex(), is(sameInstance(index)));
+  }
+
+  /**
+   * Given blank tiles when find then use them in place of the letters missing.
+   */
+  @Test
+  public void givenBlankTiles_whenFind_thenUseThemInPlaceOfMissingLetters() {
+    SubAnagramIndex index = dictionary.getSubAnagramIndex();
+
+    assertThat(index.find(LetterSignature.of("state"), 0, 0, 5), containsInAnyOrder("state"));
+    assertThat(index.find(LetterSignature.of("stae"), 0, 1, 5), containsInAnyOrder("state"));
+    assertThat(index.find(LetterSignature.of("o"), 0, 2, 3), containsInAnyOrder("zoo"));
+    assertThat(index.find(new long[LetterSignature.LONGS], 0, 2, 1), containsInAnyOrder("a",
+        "at"));
+  }
+
+  /**
+   * Given max results when find then return only the longest words in alphabetical order.
+   */
+  @Test
+  public void givenMaxResults_whenFind_thenReturnOnlyLongestWordsInAlphabeticalOrder() {
+    SubAnagramIndex index = dictionary.getSubAnagramIndex();
+
+    assertThat(index.find(LetterSignature.of("eats"), 0, 0, 1),
+        contains("seat", "teas", "ate", "eat", "tea", "at", "a"));
+    assertThat(index.find(LetterSignature.of("eats"), 0, 0, 1, 2), contains("seat", "teas"));
+    assertThat(index.find(LetterSignature.of("eats"), 0, 0, 1, 3),
+        contains("seat", "teas", "ate"));
+  }
+}
@@ -0,0 +1,117 @@
+package com.racabe.anagrams.search;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.Test;
+
+import com.racabe.anagrams.exception.InvalidCursorException;
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryBuilder;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The Class AnagramCursorTest Unit Test.
+ */
+public class AnagramCursorTest {
+
+  /**
+   * Given cursor when encode then decode the same position.
+   */
+  @Test
+  public void givenCursor_whenEncode_thenDecodeSamePosition() {
+    AnagramCursor cursor = AnagramCursor.decode(
+        new AnagramCursor(5L, new int[] {7, 4}, new int[] {12, 3}, new int[] {40, 9}).encode());
+
+    assertThat(cursor.getVersion(), is(5L));
+    assertThat(cursor.levels(), is(2));
+    assertThat(cursor.getLength(1), is(4));
+    assertThat(cursor.getPosition(0), is(12));
+    assertThat(cursor.getWord(1), is(9));
+  }
+
+  /**
+   * Given cursor without levels when decode then throw exception.
+   */
+  @Test(expected = InvalidCursorException.class)
+  public void givenCursorWithoutLevels_whenDecode_thenThrowException() {
+    AnagramCursor.decode(encode("5"));
+  }
+
+  /**
+   * Given malformed cursor when decode then throw exception.
+   */
+  @Test(expected = InvalidCursorException.class)
+  public void givenMalformedCursor_whenDecode_thenThrowException() {
+    AnagramCursor.decode(encode("5;7.12.40;4"));
+  }
+
+  /**
+   * Given empty cursor when decode then throw exception.
+   */
+  @Test(expected = InvalidCursorException.class)
+  public void givenEmptyCursor_whenDecode_thenThrowException() {
+    AnagramCursor.decode("");
+  }
+
+  /**
+   * Given forged cursors out of the canonical order when check cursor then throw exception.
+   */
+  @Test
+  public void givenForgedCursors_whenCheckCursor_thenThrowException() {
+    DictionaryBuilder builder = new DictionaryBuilder();
+    for (String word : new String[] {"dog", "god", "act", "cat", "tac"}) {
+      builder.addWord(word);
+    }
+    Dictionary dictionary = builder.build("test", 5L);
+
+    String[] forged = {
+        // A word longer than the previous one
+        encode("5;3.0;4.0"),
+        // A word longer than the letters remaining
+        encode("5;" + Integer.MAX_VALUE + ".0"),
+        // A signature before the previous one of the same length
+        encode("5;3.1;3.0"),
+        // A negative position or word
+        encode("5;3.-1"),
+        encode("5;3.0.0;3.1.-1"),
+        // An anagram that does not use all the letters
+        encode("5;3.0.0")};
+    for (String cursor : forged) {
+      AnagramQuery query = new AnagramQuery("dog cat").cursor(cursor);
+      try {
+        AnagramSearch.checkCursor(dictionary, query);
+        fail("The cursor " + cursor + " should have been rejected");
+      } catch (InvalidCursorException ex) {
+        assertThat(ex.getMessage(), containsString("does not belong"));
+      }
+      try {
+        new AnagramSearch(dictionary, query).search(LetterSignature.of("dog cat"));
+        fail("The search should not resume from the cursor " + cursor);
+      } catch (InvalidCursorException ex) {
+        assertThat(ex.getMessage(), containsString("does not belong"));
+      }
+    }
+
+    // The cursors of the search itself are still valid
+    AnagramQuery query = new AnagramQuery("dog cat").cursor(
+        new AnagramCursor(5L, new int[] {3, 3}, new int[] {0, 1}, new int[] {0, 0}).encode());
+    AnagramSearch.checkCursor(dictionary, query);
+  }
+
+  /**
+   * Encode a text as the cursors are encoded.
+   *
+   * @param text the text
+   * @return the text encoded
+   */
+  private static String encode(String text) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(text.getBytes(StandardCharsets.US_ASCII));
+  }
+}
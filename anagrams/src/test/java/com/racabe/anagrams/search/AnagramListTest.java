@@ -0,0 +1,84 @@
+package com.racabe.anagrams.search;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryBuilder;
+import com.racabe.anagrams.model.DictionaryDelta;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The Class AnagramListTest Unit Test.
+ */
+public class AnagramListTest {
+
+  /**
+   * Given words of several lengths when get word by id then return the same word.
+   */
+  @Test
+  public void givenWordsOfSeveralLengths_whenGetWordById_thenReturnSameWord() {
+    DictionaryBuilder builder = new DictionaryBuilder();
+    for (String word : new String[] {"dog", "god", "house", "cat", "horses"}) {
+      builder.addWord(word);
+    }
+    Dictionary dictionary = builder.build("test", 1L);
+
+    List<String> words = new ArrayList<String>();
+    for (int wordId = 0; wordId < dictionary.size(); wordId++) {
+      words.add(dictionary.getWord(wordId));
+    }
+    assertThat(words, containsInAnyOrder("dog", "god", "house", "cat", "horses"));
+  }
+
+  /**
+   * Given search into anagram list when get anagrams then render the sequential anagrams.
+   */
+  @Test
+  public void givenSearchIntoAnagramList_whenGetAnagrams_thenRenderSequentialAnagrams() {
+    DictionaryBuilder builder = new DictionaryBuilder();
+    for (String word : new String[] {"dog", "god", "act", "cat", "tac", "good"}) {
+      builder.addWord(word);
+    }
+    Dictionary dictionary = builder.build("test", 1L);
+    long[] signature = LetterSignature.of("dog cat");
+
+    AnagramList anagrams = new AnagramList(dictionary);
+    new AnagramSearch(dictionary, new AnagramQuery("dog cat")).search(signature, anagrams);
+
+    assertThat(anagrams.trim(), contains(new AnagramSearch(dictionary,
+        new AnagramQuery("dog cat")).search(signature).toArray(new String[0])));
+    assertThat(anagrams.size(), is(6));
+    assertThat(anagrams.contains("cat dog"), is(true));
+  }
+
+  /**
+   * Given an update before the words when rebind then render the same anagrams.
+   */
+  @Test
+  public void givenUpdateBeforeTheWords_whenRebind_thenRenderSameAnagrams() {
+    DictionaryBuilder builder = new DictionaryBuilder();
+    for (String word : new String[] {"dog", "god", "cat"}) {
+      builder.addWord(word);
+    }
+    Dictionary dictionary = builder.build("test", 1L);
+    AnagramList anagrams = new AnagramList(dictionary);
+    new AnagramSearch(dictionary, new AnagramQuery("dog")).search(LetterSignature.of("dog"),
+        anagrams);
+
+    // The shorter words added take the first ids
+    Dictionary updated = new DictionaryDelta().addWord("ab").addWord("go").applyTo(dictionary, 2L);
+    AnagramList rebound = anagrams.rebind(updated);
+
+    assertThat(rebound.getDictionary(), is(updated));
+    assertThat(rebound, contains("dog", "god"));
+    assertThat(rebound, contains(anagrams.toArray(new String[0])));
+  }
+}
@@ -0,0 +1,136 @@
+package com.racabe.anagrams.search;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.net.ConnectException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.service.impl.DictionaryService;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The Class DistributedAnagramSearchTest Unit Test.
+ */
+public class DistributedAnagramSearchTest {
+
+  /** The pool of the parallel searches. */
+  private static ForkJoinPool pool;
+
+  /** The executor of the requests to the peers. */
+  private static ExecutorService executor;
+
+  /** The dictionary. */
+  private static Dictionary dictionary;
+
+  /** A peer that searches its ranges into this process, as a node with the same dictionary. */
+  private static final AnagramPeer PEER = (snapshot, query, from, to, parts) -> {
+    ParallelAnagramSearch search = new ParallelAnagramSearch(snapshot, query, pool);
+    AnagramList anagrams =
+        search.search(LetterSignature.of(query.getWords()), from, to).trim();
+    assertThat(search.getPartCount(), is(parts));
+    return new AnagramPage(new ArrayList<String>(anagrams), search.getCursor() == null,
+        search.isTimedOut(), search.getCursor());
+  };
+
+  /** A peer that can not be reached. */
+  private static final AnagramPeer DOWN_PEER = (snapshot, query, from, to, parts) -> {
+    throw new ConnectException("Connection refused");
+  };
+
+  /** A peer with a word that is not into the dictionary, that answers the same anagram always. */
+  private static final AnagramPeer FOREIGN_PEER = (snapshot, query, from, to, parts) ->
+      new AnagramPage(Arrays.asList("qqq zzz"), true, false, null);
+
+  /**
+   * Load the dictionary and create the pools.
+   */
+  @BeforeClass
+  public static void setUp() {
+    pool = new ForkJoinPool(4);
+    executor = Executors.newFixedThreadPool(4);
+    DictionaryService dictionaryService = new DictionaryService();
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    dictionary = dictionaryService.getDictionary("anagramDic");
+  }
+
+  /**
+   * Shut down the pools.
+   */
+  @AfterClass
+  public static void tearDown() {
+    pool.shutdown();
+    executor.shutdown();
+  }
+
+  /**
+   * Given a peer down when search distributed then retry its ranges and return the sequential
+   * anagrams in order.
+   */
+  @Test
+  public void givenPeerDown_whenSearchDistributed_thenRetryAndReturnSequentialAnagramsInOrder() {
+    String words = "Helmuth Elsner";
+    long[] signature = LetterSignature.of(words);
+
+    List<String> sequential = new ArrayList<String>(
+        new AnagramSearch(dictionary, new AnagramQuery(words)).search(signature));
+    DistributedAnagramSearch search = new DistributedAnagramSearch(dictionary,
+        new AnagramQuery(words), Arrays.asList(PEER, DOWN_PEER), executor, pool, 3);
+
+    List<String> anagrams = search.search(signature);
+    assertThat(anagrams, contains(sequential.toArray()));
+    assertThat(anagrams, is(instanceOf(AnagramList.class)));
+    assertThat(search.getCursor(), is(nullValue()));
+    assertThat(search.getRetries(), is(3));
+    assertThat(search.getFallbacks(), is(0));
+  }
+
+  /**
+   * Given all peers down when search distributed then search the ranges into this node.
+   */
+  @Test
+  public void givenAllPeersDown_whenSearchDistributed_thenSearchRangesIntoThisNode() {
+    String words = "Wareneingang";
+    long[] signature = LetterSignature.of(words);
+
+    List<String> sequential = new ArrayList<String>(
+        new AnagramSearch(dictionary, new AnagramQuery(words)).search(signature));
+    DistributedAnagramSearch search = new DistributedAnagramSearch(dictionary,
+        new AnagramQuery(words), Arrays.asList(DOWN_PEER, DOWN_PEER), executor, pool, 2);
+
+    assertThat(search.search(signature), contains(sequential.toArray()));
+    assertThat(search.getFallbacks(), is(4));
+    assertThat(search.getRetries(), greaterThan(0));
+  }
+
+  /**
+   * Given a peer with other words when search distributed then keep the anagrams as strings.
+   */
+  @Test
+  public void givenPeerWithOtherWords_whenSearchDistributed_thenKeepAnagramsAsStrings() {
+    String words = "Helmuth Elsner";
+    DistributedAnagramSearch search = new DistributedAnagramSearch(dictionary,
+        new AnagramQuery(words), Arrays.asList(FOREIGN_PEER), executor, pool, 3);
+
+    // The same anagram at the boundaries of the ranges is joined only once
+    List<String> anagrams = search.search(LetterSignature.of(words));
+    assertThat(anagrams, contains("qqq zzz"));
+    assertThat(anagrams, is(not(instanceOf(AnagramList.class))));
+  }
+}
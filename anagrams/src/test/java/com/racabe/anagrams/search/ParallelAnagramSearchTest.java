@@ -0,0 +1,89 @@
+package com.racabe.anagrams.search;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.service.impl.DictionaryService;
+import com.racabe.anagrams.utils.LetterSignature;
+
+/**
+ * The Class ParallelAnagramSearchTest Unit Test.
+ */
+public class ParallelAnagramSearchTest {
+
+  /** The pool of the parallel searches. */
+  private static ForkJoinPool pool;
+
+  /** The dictionary. */
+  private static Dictionary dictionary;
+
+  /**
+   * Load the dictionary and create the pool.
+   */
+  @BeforeClass
+  public static void setUp() {
+    pool = new ForkJoinPool(4);
+    DictionaryService dictionaryService = new DictionaryService();
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    dictionary = dictionaryService.getDictionary("anagramDic");
+  }
+
+  /**
+   * Shut down the pool.
+   */
+  @AfterClass
+  public static void tearDown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Given phrase when search in parallel then return the sequential anagrams in order.
+   */
+  @Test
+  public void givenPhrase_whenSearchInParallel_thenReturnSequentialAnagramsInOrder() {
+    String words = "Helmuth Elsner";
+    long[] signature = LetterSignature.of(words);
+
+    List<String> sequential = new ArrayList<String>(
+        new AnagramSearch(dictionary, new AnagramQuery(words)).search(signature));
+    ParallelAnagramSearch search =
+        new ParallelAnagramSearch(dictionary, new AnagramQuery(words), pool);
+
+    assertThat(search.search(signature), contains(sequential.toArray()));
+    assertThat(search.getCursor(), is(nullValue()));
+  }
+
+  /**
+   * Given cursor of sequential page when search in parallel then resume the same anagrams.
+   */
+  @Test
+  public void givenCursorOfSequentialPage_whenSearchInParallel_thenResumeSameAnagrams() {
+    String words = "Wareneingang";
+    long[] signature = LetterSignature.of(words);
+
+    List<String> sequential = new ArrayList<String>(
+        new AnagramSearch(dictionary, new AnagramQuery(words)).search(signature));
+
+    // Stop the sequential search in the middle, then resume it in parallel
+    List<String> resumed = new ArrayList<String>();
+    AnagramSearch first = new AnagramSearch(dictionary, new AnagramQuery(words));
+    first.search(signature,
+        (AnagramConsumer) anagram -> resumed.size() < 100 && resumed.add(anagram));
+    resumed.addAll(new ParallelAnagramSearch(dictionary,
+        new AnagramQuery(words).cursor(first.getCursor()), pool).search(signature));
+
+    assertThat(resumed, contains(sequential.toArray()));
+  }
+}
@@ -0,0 +1,357 @@
+package com.racabe.anagrams.service.impl;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.racabe.anagrams.exception.DictionaryMismatchException;
+import com.racabe.anagrams.exception.InvalidBatchException;
+import com.racabe.anagrams.exception.InvalidLettersException;
+import com.racabe.anagrams.exception.InvalidPartitionException;
+import com.racabe.anagrams.exception.SearchRejectedException;
+import com.racabe.anagrams.model.Dictionary;
+import com.racabe.anagrams.model.DictionaryBuilder;
+import com.racabe.anagrams.model.DictionaryDelta;
+import com.racabe.anagrams.search.AnagramList;
+import com.racabe.anagrams.search.AnagramPage;
+import com.racabe.anagrams.search.AnagramQuery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The Class DictionaryServiceUnitTest Unit Test.
+ */
+public class DictionaryServiceUnitTest {
+
+  /** The dictionary service. */
+  private final DictionaryService dictionaryService = new DictionaryService();
+
+  /**
+   * Given dictionary file and word when get anagrams then return all combinations.
+   */
+  @Test
+  public void givenDictionaryFileAndWord_whenGetAnagrams_thenReturnAllCombinations() {
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+
+    List<String> anagrams = dictionaryService
+        .getAnagrams(dictionaryService.getDictionary("anagramDic"), new AnagramQuery("Computer"))
+        .getAnagrams();
+
+    assertThat(anagrams, hasSize(11));
+    assertThat(anagrams, hasItems("computer", "cup metro", "mop truce", "cur tempo"));
+  }
+
+  /**
+   * Given phrase when get anagrams then return combinations of several lengths.
+   */
+  @Test
+  public void givenPhrase_whenGetAnagrams_thenReturnCombinationsOfSeveralLengths() {
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+
+    List<String> anagrams = dictionaryService.getAnagrams(
+        dictionaryService.getDictionary("anagramDic"), new AnagramQuery("Wareneingang"))
+        .getAnagrams();
+
+    assertThat(anagrams, hasSize(228));
+    assertThat(anagrams, hasItems("gain new range", "earn gang wine", "aging earn new"));
+  }
+
+  /**
+   * Given repeated words when get anagrams then do not return permutations.
+   */
+  @Test
+  public void givenRepeatedWords_whenGetAnagrams_thenDoNotReturnPermutations() {
+    Dictionary dictionary =
+        new DictionaryBuilder().addWord("dog").addWord("god").addWord("cat").build("pets", 1L);
+
+    List<String> anagrams =
+        dictionaryService.getAnagrams(dictionary, new AnagramQuery("do-go-dg")).getAnagrams();
+
+    assertThat(anagrams, containsInAnyOrder("dog dog", "dog god", "god god"));
+  }
+
+  /**
+   * Given max results when get anagrams then pages cover all combinations once.
+   */
+  @Test
+  public void givenMaxResults_whenGetAnagrams_thenPagesCoverAllCombinationsOnce() {
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    Dictionary dictionary = dictionaryService.getDictionary("anagramDic");
+
+    List<String> paged = new ArrayList<String>();
+    String cursor = null;
+    AnagramPage page;
+    do {
+      page = dictionaryService.getAnagrams(dictionary,
+          new AnagramQuery("Wareneingang").maxResults(50).cursor(cursor));
+      assertThat(page.getAnagrams().size(), lessThanOrEqualTo(50));
+      paged.addAll(page.getAnagrams());
+      cursor = page.getNextCursor();
+    } while (!page.isComplete());
+
+    List<String> all =
+        dictionaryService.getAnagrams(dictionary, new AnagramQuery("Wareneingang")).getAnagrams();
+    assertThat(paged, contains(all.toArray()));
+  }
+
+  /**
+   * Given same letters when get anagrams then return cached page until reload.
+   */
+  @Test
+  public void givenSameLetters_whenGetAnagrams_thenReturnCachedPageUntilReload() {
+    ReflectionTestUtils.setField(dictionaryService, "anagramCache",
+        Caffeine.newBuilder().recordStats().build());
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    Dictionary dictionary = dictionaryService.getDictionary("anagramDic");
+
+    AnagramPage page = dictionaryService.getAnagrams(dictionary, new AnagramQuery("Computer"));
+    assertThat(dictionaryService.getAnagrams(dictionary, new AnagramQuery("mute proc")),
+        is(sameInstance(page)));
+    assertThat(dictionaryService.getCacheStatistics().get("hits"), is(1L));
+
+    // Reloading the dictionary evicts its pages
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    assertThat(dictionaryService.getCacheStatistics().get("pages"), is(0L));
+  }
+
+  /**
+   * Given cached pages when update dictionary then keep only the pages that can not change.
+   */
+  @Test
+  public void givenCachedPages_whenUpdateDictionary_thenKeepPagesThatCanNotChange() {
+    ReflectionTestUtils.setField(dictionaryService, "anagramCache",
+        Caffeine.newBuilder().recordStats().build());
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    Dictionary dictionary = dictionaryService.getDictionary("anagramDic");
+    dictionaryService.getAnagrams(dictionary, new AnagramQuery("Computer"));
+    AnagramPage page = dictionaryService.getAnagrams(dictionary, new AnagramQuery("Wareneingang"));
+
+    Dictionary updated = dictionaryService.updateDictionary("anagramDic",
+        new DictionaryDelta().removeWord("cup").addWord("Zzz"));
+
+    assertThat(updated.size(), is(dictionary.size()));
+    assertThat(dictionaryService.getCacheStatistics().get("pages"), is(1L));
+    AnagramPage carried = dictionaryService.getAnagrams(updated, new AnagramQuery("Wareneingang"));
+    assertThat(page.getAnagrams(), not(empty()));
+    assertThat(carried.getAnagrams(), contains(page.getAnagrams().toArray(new String[0])));
+    assertThat(((AnagramList) carried.getAnagrams()).getDictionary(), is(sameInstance(updated)));
+    assertThat(dictionaryService.getAnagrams(updated, new AnagramQuery("Computer")).getAnagrams(),
+        not(hasItem("cup metro")));
+  }
+
+  /**
+   * Given phrases with the same letters when get anagrams of a batch then search them only once.
+   */
+  @Test
+  public void givenSameLettersInBatch_whenGetAnagrams_thenSearchThemOnce() {
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    Dictionary dictionary = dictionaryService.getDictionary("anagramDic");
+
+    List<AnagramPage> pages = dictionaryService.getAnagramsAsync(dictionary, Arrays.asList(
+        new AnagramQuery("Computer"), new AnagramQuery("Anagram"), new AnagramQuery("mute proc")))
+        .join();
+
+    assertThat(pages, hasSize(3));
+    assertThat(pages.get(0).getAnagrams(), hasItems("computer", "cup metro"));
+    assertThat(pages.get(2), is(sameInstance(pages.get(0))));
+    assertThat(pages.get(1).getAnagrams(), is(dictionaryService
+        .getAnagrams(dictionary, new AnagramQuery("Anagram")).getAnagrams()));
+  }
+
+  /**
+   * Given too many phrases when get anagrams of a batch then throw an exception.
+   */
+  @Test(expected = InvalidBatchException.class)
+  public void givenTooManyPhrases_whenGetAnagrams_thenThrowException() {
+    ReflectionTestUtils.setField(dictionaryService, "batchMaxPhrases", 1);
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+
+    dictionaryService.getAnagramsAsync(dictionaryService.getDictionary("anagramDic"),
+        Arrays.asList(new AnagramQuery("Computer"), new AnagramQuery("Anagram")));
+  }
+
+  /**
+   * Given an executor of the batches when get anagrams of a batch then search only a few phrases at
+   * the same time.
+   */
+  @Test
+  public void givenBatchExecutor_whenGetAnagrams_thenSearchOnlyFewPhrasesAtSameTime() {
+    List<Runnable> submitted = new ArrayList<Runnable>();
+    ReflectionTestUtils.setField(dictionaryService, "batchTaskExecutor",
+        (Executor) submitted::add);
+    ReflectionTestUtils.setField(dictionaryService, "batchConcurrency", 2);
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+
+    CompletableFuture<List<AnagramPage>> pages = dictionaryService.getAnagramsAsync(
+        dictionaryService.getDictionary("anagramDic"), Arrays.asList(new AnagramQuery("Computer"),
+            new AnagramQuery("Anagram"), new AnagramQuery("Listen"), new AnagramQuery("Dog")));
+
+    // Each search finished submits the next one
+    assertThat(submitted, hasSize(2));
+    for (int pos = 0; pos < submitted.size(); pos++) {
+      assertThat(pages.isDone(), is(false));
+      submitted.get(pos).run();
+    }
+    assertThat(submitted, hasSize(4));
+    assertThat(pages.join().get(0).getAnagrams(), hasItem("cup metro"));
+  }
+
+  /**
+   * Given a full executor of the batches when get anagrams of a batch then reject the batch.
+   */
+  @Test
+  public void givenFullBatchExecutor_whenGetAnagrams_thenRejectBatch() {
+    ReflectionTestUtils.setField(dictionaryService, "batchTaskExecutor", (Executor) command -> {
+      throw new RejectedExecutionException("full");
+    });
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+
+    CompletableFuture<List<AnagramPage>> pages = dictionaryService.getAnagramsAsync(
+        dictionaryService.getDictionary("anagramDic"), Arrays.asList(new AnagramQuery("Computer")));
+
+    try {
+      pages.join();
+      fail("The batch should have been rejected");
+    } catch (CompletionException ex) {
+      assertThat(ex.getCause(), is(instanceOf(SearchRejectedException.class)));
+    }
+  }
+
+  /**
+   * Given a negative range when get anagram partition then throw an exception before searching.
+   */
+  @Test(expected = InvalidPartitionException.class)
+  public void givenNegativeRange_whenGetAnagramPartition_thenThrowException() {
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    Dictionary dictionary = dictionaryService.getDictionary("anagramDic");
+
+    dictionaryService.getAnagramPartitionAsync(dictionary, new AnagramQuery("Wareneingang"),
+        dictionary.getFingerprint(), -1, 2, 4);
+  }
+
+  /**
+   * Given other number of parts when get anagram partition then throw an exception.
+   */
+  @Test(expected = DictionaryMismatchException.class)
+  public void givenOtherNumberOfParts_whenGetAnagramPartition_thenThrowException() {
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    Dictionary dictionary = dictionaryService.getDictionary("anagramDic");
+
+    dictionaryService.getAnagramPartitionAsync(dictionary, new AnagramQuery("Wareneingang"),
+        dictionary.getFingerprint(), 0, 1, 100000).join();
+  }
+
+  /**
+   * Given a meter registry when get anagrams then record the metrics of each stage.
+   */
+  @Test
+  public void givenMeterRegistry_whenGetAnagrams_thenRecordStageMetrics() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ReflectionTestUtils.setField(dictionaryService, "meterRegistry", registry);
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    Dictionary dictionary = dictionaryService.getDictionary("anagramDic");
+
+    AnagramPage page = dictionaryService.getAnagrams(dictionary, new AnagramQuery("Computer"));
+
+    assertThat(registry.get("anagrams.dictionary.load").tag("format", "words").timer().count(),
+        is(1L));
+    assertThat(registry.get("anagrams.search").tag("mode", "page").timer().count(), is(1L));
+    assertThat(registry.get("anagrams.search.anagrams").summary().totalAmount(),
+        is((double) page.getAnagrams().size()));
+    assertThat(registry.get("anagrams.search.signatures").summary().totalAmount(),
+        is(greaterThan(0d)));
+  }
+
+  /**
+   * Given a word when get its anagrams then return the words with the same letters.
+   */
+  @Test
+  public void givenWord_whenGetWordAnagrams_thenReturnWordsWithSameLetters() {
+    Dictionary dictionary = new DictionaryBuilder().addWord("listen").addWord("silent")
+        .addWord("enlist").addWord("list").build("words", 1L);
+
+    assertThat(dictionaryService.getWordAnagrams(dictionary, "Tinsel"),
+        containsInAnyOrder("listen", "silent", "enlist"));
+    assertThat(dictionaryService.getWordAnagrams(dictionary, "stone"), hasSize(0));
+    assertThat(dictionaryService.getWordAnagrams(dictionary, "extraordinarily"), hasSize(0));
+  }
+
+  /**
+   * Given letters when get sub-anagrams then return the longest words first.
+   */
+  @Test
+  public void givenLetters_whenGetSubAnagrams_thenReturnLongestWordsFirst() {
+    dictionaryService.loadDictionary("anagramDic", Paths.get("../anagramDic.txt"));
+    Dictionary dictionary = dictionaryService.getDictionary("anagramDic");
+
+    List<String> words = dictionaryService.getSubAnagrams(dictionary, "Computer", 3, 0);
+
+    assertThat(words.get(0), is("computer"));
+    assertThat(words, hasItems("cup", "metro", "tempo", "rope"));
+    assertThat(words.get(words.size() - 1).length(), is(3));
+    assertThat(dictionaryService.getSubAnagrams(dictionary, "Compute?", 8, 0),
+        hasItems("computer", "computed"));
+    assertThat(dictionaryService.getSubAnagrams(dictionary, "Computer", 3, 5), hasSize(5));
+    assertThat(dictionaryService.getSubAnagrams(dictionary, "Computer", 3, 1),
+        contains("computer"));
+  }
+
+  /**
+   * Given too many blank tiles when get sub-anagrams then throw exception.
+   */
+  @Test(expected = InvalidLettersException.class)
+  public void givenTooManyBlankTiles_whenGetSubAnagrams_thenThrowException() {
+    ReflectionTestUtils.setField(dictionaryService, "subAnagramsMaxBlanks", 2);
+    Dictionary dictionary = new DictionaryBuilder().addWord("cup").build("test", 1L);
+
+    dictionaryService.getSubAnagrams(dictionary, "cu???", 2, 0);
+  }
+
+  /**
+   * Given too many letters when get sub-anagrams then throw exception.
+   */
+  @Test(expected = InvalidLettersException.class)
+  public void givenTooManyLetters_whenGetSubAnagrams_thenThrowException() {
+    ReflectionTestUtils.setField(dictionaryService, "subAnagramsMaxLetters", 4);
+    Dictionary dictionary = new DictionaryBuilder().addWord("cup").build("test", 1L);
+
+    dictionaryService.getSubAnagrams(dictionary, "cupola", 2, 0);
+  }
+
+  /**
+   * Given a list of words when group anagrams then return the classes of anagrams.
+   */
+  @Test
+  public void givenWordList_whenGroupAnagrams_thenReturnClassesOfAnagrams() {
+    List<String> words = Arrays.asList("Listen", "dog", "silent", "god", "cat", "listen");
+
+    assertThat(dictionaryService.groupAnagrams(words, 1), containsInAnyOrder(
+        containsInAnyOrder("dog", "god"), contains("cat"), containsInAnyOrder("listen", "silent")));
+    assertThat(dictionaryService.groupAnagrams(words, 2), hasSize(2));
+  }
+}
@@ -0,0 +1,67 @@
+package com.racabe.anagrams.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.racabe.anagrams.exception.DictionaryException;
+
+/**
+ * The Class LetterSignatureTest Unit Test.
+ */
+public class LetterSignatureTest {
+
+  /**
+   * Given anagrams when signature then return the same signature.
+   */
+  @Test
+  public void givenAnagrams_whenSignature_thenReturnTheSameSignature() {
+    assertArrayEquals(LetterSignature.of("William Shakespeare"),
+        LetterSignature.of("I am a weakish speller"));
+    assertEquals(18, LetterSignature.length(LetterSignature.of("I am a weakish speller"), 0));
+  }
+
+  /**
+   * Given long phrase when contains then do not overflow.
+   */
+  @Test
+  public void givenLongPhrase_whenContains_thenDoNotOverflow() {
+    long[] phrase = LetterSignature.of("zzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzz yyyyyyyyyyyyyyy");
+    long[] letters = LetterSignature.of("zzz");
+
+    assertTrue(LetterSignature.contains(phrase, 0, letters, 0));
+    assertFalse(LetterSignature.contains(letters, 0, phrase, 0));
+
+    long[] remaining = new long[LetterSignature.LONGS];
+    LetterSignature.subtract(phrase, 0, letters, 0, remaining, 0);
+    assertEquals(37, LetterSignature.count(remaining, 0, 'z' - 'a'));
+    assertEquals(15, LetterSignature.count(remaining, 0, 'y' - 'a'));
+  }
+
+  /**
+   * Given missing letter when contains then return false.
+   */
+  @Test
+  public void givenMissingLetter_whenContains_thenReturnFalse() {
+    long[] computer = LetterSignature.of("computer");
+
+    assertTrue(LetterSignature.contains(computer, 0, LetterSignature.of("CPU"), 0));
+    assertFalse(LetterSignature.contains(computer, 0, LetterSignature.of("cup metros"), 0));
+    assertFalse(LetterSignature.contains(computer, 0, LetterSignature.of("coop"), 0));
+  }
+
+  /**
+   * Given too many times a letter when signature then throw exception.
+   */
+  @Test(expected = DictionaryException.class)
+  public void givenTooManyTimesALetter_whenSignature_thenThrowException() {
+    StringBuilder phrase = new StringBuilder();
+    for (int pos = 0; pos <= LetterSignature.MAX_LETTER_COUNT; pos++) {
+      phrase.append('a');
+    }
+    LetterSignature.of(phrase);
+  }
+}